@@ -0,0 +1,60 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.rutgerkok.blocklocker.TestWorld;
+import nl.rutgerkok.blocklocker.impl.blockfinder.BlockFinder;
+
+/**
+ * Measures the search for connected containers, used when
+ * {@code connectContainers} is enabled.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockFinderBenchmark {
+
+    private BlockFinder blockFinder;
+    private Block start;
+
+    /**
+     * Number of barrels placed next to each other.
+     */
+    @Param({ "1", "8", "32" })
+    public int containers;
+
+    @Benchmark
+    public List<Block> findContainerNeighbors() {
+        return blockFinder.findContainerNeighbors(start);
+    }
+
+    @Setup
+    public void setUp() {
+        TestServices services = TestServices.create(true);
+        TestWorld world = new TestWorld("world");
+        for (int i = 0; i < containers; i++) {
+            world.setBlock(i, 64, 0, Material.BARREL);
+        }
+        start = world.getBlockAt(0, 64, 0);
+        blockFinder = services.getBlockFinder();
+    }
+}
@@ -0,0 +1,63 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.rutgerkok.blocklocker.ProtectionCache.CacheFlag;
+import nl.rutgerkok.blocklocker.ProtectionCache.CacheType;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+/**
+ * Measures {@link HopperCacheImpl#getAllowed(Block, CacheType)}, which is
+ * called for every item that a hopper moves.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HopperCacheBenchmark {
+
+    private static final int BLOCK_COUNT = 1024;
+
+    private final Block[] cachedBlocks = new Block[BLOCK_COUNT];
+    private final Block[] uncachedBlocks = new Block[BLOCK_COUNT];
+    private int index;
+    private HopperCacheImpl protectionCache;
+
+    @Benchmark
+    public CacheFlag getAllowedHit() {
+        index = (index + 1) % BLOCK_COUNT;
+        return protectionCache.getAllowed(cachedBlocks[index], CacheType.REDSTONE);
+    }
+
+    @Benchmark
+    public CacheFlag getAllowedMiss() {
+        index = (index + 1) % BLOCK_COUNT;
+        return protectionCache.getAllowed(uncachedBlocks[index], CacheType.REDSTONE);
+    }
+
+    @Setup
+    public void setUp() {
+        TestWorld world = new TestWorld("world");
+        protectionCache = new HopperCacheImpl(TestServices.loadConfig(false));
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            cachedBlocks[i] = world.getBlockAt(i % 32, 64, i / 32);
+            uncachedBlocks[i] = world.getBlockAt(1000 + i % 32, 64, i / 32);
+            protectionCache.setAllowed(cachedBlocks[i], CacheType.REDSTONE, i % 2 == 0);
+        }
+    }
+}
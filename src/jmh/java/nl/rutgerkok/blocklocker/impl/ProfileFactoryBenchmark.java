@@ -0,0 +1,51 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
+import nl.rutgerkok.blocklocker.profile.Profile;
+
+/**
+ * Measures {@link ProfileFactoryImpl#fromDisplayText(String)}, which is used
+ * for every name on a sign without hidden data.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProfileFactoryBenchmark {
+
+    private ProfileFactoryImpl profileFactory;
+
+    /**
+     * A player name, a group, a group leader and a name in the LockettePro
+     * format.
+     */
+    @Param({ "Alice", "[Builders]", "+Builders+", "Alice#8667ba71-b85a-4004-af54-457a9734eed7" })
+    public String text;
+
+    @Benchmark
+    public Profile fromDisplayText() {
+        return profileFactory.fromDisplayText(text);
+    }
+
+    @Setup
+    public void setUp() {
+        profileFactory = TestServices.create(false).getProfileFactory();
+    }
+}
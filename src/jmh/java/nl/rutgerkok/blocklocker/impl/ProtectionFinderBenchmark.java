@@ -0,0 +1,96 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.rutgerkok.blocklocker.SearchMode;
+import nl.rutgerkok.blocklocker.TestWorld;
+import nl.rutgerkok.blocklocker.protection.Protection;
+
+/**
+ * Measures {@link ProtectionFinderImpl#findProtection(Block, SearchMode)}, which
+ * is called for almost every block event.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtectionFinderBenchmark {
+
+    /**
+     * The block that is looked up.
+     */
+    public enum Target {
+        /**
+         * A chest with a protection sign attached.
+         */
+        PROTECTED_CHEST,
+        /**
+         * A chest that has no sign attached, but there is a protection sign a
+         * few blocks away.
+         */
+        UNPROTECTED_CHEST_NEAR_SIGN,
+        /**
+         * A chest far away from any sign.
+         */
+        UNPROTECTED_CHEST
+    }
+
+    private Block block;
+    private ProtectionFinderImpl protectionFinder;
+
+    @Param
+    public SearchMode searchMode;
+
+    @Param
+    public Target target;
+
+    @Benchmark
+    public Optional<Protection> findProtection() {
+        return protectionFinder.findProtection(block, searchMode);
+    }
+
+    @Setup
+    public void setUp() {
+        TestServices services = TestServices.create(false);
+        TestWorld world = new TestWorld("world");
+
+        Block protectedChest = world.setBlock(0, 64, 0, Material.CHEST);
+        world.placeWallSign(protectedChest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice", "Bob");
+        Block chestNearSign = world.setBlock(4, 64, 0, Material.CHEST);
+        Block chest = world.setBlock(200, 64, 200, Material.CHEST);
+
+        protectionFinder = services.getProtectionFinder();
+        switch (target) {
+            case PROTECTED_CHEST:
+                block = protectedChest;
+                break;
+            case UNPROTECTED_CHEST_NEAR_SIGN:
+                block = chestNearSign;
+                break;
+            case UNPROTECTED_CHEST:
+                block = chest;
+                break;
+            default:
+                throw new AssertionError("Unknown target: " + target);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.rutgerkok.blocklocker.ProtectionSign;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+/**
+ * Measures {@link SignParserImpl#parseSign(Block)}, both when the sign is in
+ * the {@link SignCache} and when it has to be read again. A cache hit should be
+ * faster than {@link #parseSignWithoutCache()}, which just parses the sign.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SignParserBenchmark {
+
+    private SignCache signCache;
+    private Block signBlock;
+    private SignParserImpl signParser;
+
+    @Benchmark
+    public Optional<ProtectionSign> parseSignCached() {
+        return signParser.parseSign(signBlock);
+    }
+
+    @Benchmark
+    public Optional<ProtectionSign> parseSignWithoutCache() {
+        return signParser.readSign(signBlock);
+    }
+
+    @Benchmark
+    public Optional<ProtectionSign> parseSignUncached() {
+        signCache.invalidate(signBlock);
+        return signParser.parseSign(signBlock);
+    }
+
+    @Setup
+    public void setUp() {
+        TestServices services = TestServices.create(false);
+        TestWorld world = new TestWorld("world");
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        signBlock = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice", "Bob",
+                "[Everyone]");
+        signCache = new SignCache();
+        signParser = new SignParserImpl(services.getChestSettings(), services.getProfileFactory(), signCache,
+                Logger.getLogger("BlockLocker"));
+    }
+}
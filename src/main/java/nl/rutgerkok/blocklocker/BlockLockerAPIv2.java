@@ -158,7 +158,7 @@ public final class BlockLockerAPIv2 {
      * @return True if the given block is protected, false otherwise.
      */
     public static boolean isProtected(Block block) {
-        return getPlugin().getProtectionFinder().findProtection(block).isPresent();
+        return getPlugin().getProtectionFinder().isProtected(block);
     }
 
     private BlockLockerAPIv2() {
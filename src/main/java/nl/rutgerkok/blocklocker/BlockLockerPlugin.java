@@ -1,5 +1,7 @@
 package nl.rutgerkok.blocklocker;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.logging.Logger;
 
 import org.bukkit.block.Block;
@@ -41,6 +43,33 @@ public interface BlockLockerPlugin {
      */
     CombinedGroupSystem getGroupSystems();
 
+    /**
+     * Gets the timings of the event handlers and protection lookups of this
+     * plugin. Implementations that don't record timings return statistics
+     * without any timings.
+     *
+     * @return The statistics.
+     */
+    default PerformanceStatistics getPerformanceStatistics() {
+        return new PerformanceStatistics() {
+
+            @Override
+            public double getProtectionCacheHitRatio() {
+                return 1;
+            }
+
+            @Override
+            public double getSignCacheHitRatio() {
+                return 1;
+            }
+
+            @Override
+            public Collection<Timing> getTimings() {
+                return Collections.emptyList();
+            }
+        };
+    }
+
     /**
      * Gets the cache that stores whether a block is protected or not.
      * @return The cache.
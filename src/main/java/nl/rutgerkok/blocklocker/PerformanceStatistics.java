@@ -0,0 +1,83 @@
+package nl.rutgerkok.blocklocker;
+
+import java.util.Collection;
+
+/**
+ * Timings of the event handlers and protection lookups of the plugin, for
+ * example for use by metrics exporters. All numbers are counted from the
+ * moment the plugin was enabled.
+ *
+ */
+public interface PerformanceStatistics {
+
+    /**
+     * Timings of a single event handler or method.
+     *
+     */
+    interface Timing {
+
+        /**
+         * Gets how many times the operation was called.
+         *
+         * @return The amount of calls.
+         */
+        long getCalls();
+
+        /**
+         * Gets the longest time the operation ever took.
+         *
+         * @return The time in nanoseconds.
+         */
+        long getMaxNanos();
+
+        /**
+         * Gets the median time the operation took. This value is
+         * approximated: it is rounded up to one less than a power of two.
+         *
+         * @return The time in nanoseconds.
+         */
+        long getMedianNanos();
+
+        /**
+         * Gets the name of the operation, like
+         * {@code BlockPlaceListener.onBlockPlace} or
+         * {@code ProtectionFinder.findProtection}.
+         *
+         * @return The name.
+         */
+        String getName();
+
+        /**
+         * Gets the time that 99% of the calls stayed under. Approximated in
+         * the same way as {@link #getMedianNanos()}.
+         *
+         * @return The time in nanoseconds.
+         */
+        long getNinetyNinthPercentileNanos();
+    }
+
+    /**
+     * Gets the fraction of lookups in the redstone/golem protection cache
+     * that were answered by the cache.
+     *
+     * @return The fraction, from 0 to 1. 1 if the cache was never used.
+     * @see BlockLockerPlugin#getProtectionCache()
+     */
+    double getProtectionCacheHitRatio();
+
+    /**
+     * Gets the fraction of sign reads that were answered by the cache of
+     * parsed signs.
+     *
+     * @return The fraction, from 0 to 1. 1 if the cache was never used.
+     */
+    double getSignCacheHitRatio();
+
+    /**
+     * Gets the timings of all operations that were called at least once,
+     * sorted by name.
+     *
+     * @return The timings.
+     */
+    Collection<Timing> getTimings();
+}
@@ -3,9 +3,10 @@ package nl.rutgerkok.blocklocker;
 import org.bukkit.block.Block;
 
 /**
- * A simple cache that stores whether a block is protected. Entries expire after
- * a few seconds. Used for hoppers and copper golems, which do <em>a lot</em> of successive
- * checks.
+ * A simple cache that stores whether a block is protected. Entries are removed
+ * when a sign or container nearby changes, and otherwise expire after a few
+ * seconds. Used for hoppers and copper golems, which do <em>a lot</em> of
+ * successive checks.
  */
 public interface ProtectionCache {
 
@@ -53,5 +54,4 @@ public interface ProtectionCache {
      */
     void setAllowed(Block block, CacheType cacheType, boolean allowed);
 
-
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package nl.rutgerkok.blocklocker;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
@@ -48,6 +51,41 @@ public interface ProtectionFinder {
      */
     Optional<Protection> findProtection(Block block, SearchMode searchMode);
 
+    /**
+     * Finds out which of the given blocks are protected, for example to filter
+     * the block list of an explosion. A block is in the result if
+     * {@code findProtection(block).isPresent()} returns true. Implementations
+     * can be faster than calling {@link #findProtection(Block)} for every
+     * block, as blocks close to each other often share signs and supporting
+     * blocks.
+     *
+     * @param blocks
+     *            The blocks to check.
+     * @return The blocks that are protected, a subset of the given blocks.
+     */
+    default Set<Block> findProtections(Collection<Block> blocks) {
+        Set<Block> protectedBlocks = new HashSet<>();
+        for (Block block : blocks) {
+            if (findProtection(block).isPresent()) {
+                protectedBlocks.add(block);
+            }
+        }
+        return protectedBlocks;
+    }
+
+    /**
+     * Gets whether the given block is part of a protection. This gives the
+     * same result as {@code findProtection(block).isPresent()}, but can be a
+     * lot faster, as the search stops at the first protection sign.
+     *
+     * @param block
+     *            The block to check.
+     * @return True if the block is protected, false otherwise.
+     */
+    default boolean isProtected(Block block) {
+        return findProtection(block).isPresent();
+    }
+
     /**
      * Gets whether this block can be protected by a sign. This can either be
      * because it is itself a block that can be locked (like a chest) or because it
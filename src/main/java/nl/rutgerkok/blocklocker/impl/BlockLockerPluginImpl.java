@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Locale;
 import java.util.Optional;
@@ -18,6 +19,7 @@ import org.bukkit.block.Block;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
@@ -28,6 +30,8 @@ import com.google.common.base.Preconditions;
 import nl.rutgerkok.blocklocker.group.CombinedGroupSystem;
 import nl.rutgerkok.blocklocker.group.GroupSystem;
 import nl.rutgerkok.blocklocker.impl.blockfinder.BlockFinder;
+import nl.rutgerkok.blocklocker.impl.blockfinder.ContainerGroupCache;
+import nl.rutgerkok.blocklocker.impl.group.CachingGroupSystem;
 import nl.rutgerkok.blocklocker.impl.group.FactionsGroupSystem;
 import nl.rutgerkok.blocklocker.impl.group.GuildsGroupSystem;
 import nl.rutgerkok.blocklocker.impl.group.PermissionsGroupSystem;
@@ -36,6 +40,8 @@ import nl.rutgerkok.blocklocker.impl.group.SimpleClansGroupSystem;
 import nl.rutgerkok.blocklocker.impl.group.TownyGroupSystem;
 import nl.rutgerkok.blocklocker.impl.group.mcMMOGroupSystem;
 import nl.rutgerkok.blocklocker.impl.location.TownyLocationChecker;
+import nl.rutgerkok.blocklocker.impl.profile.LastSeenStore;
+import nl.rutgerkok.blocklocker.impl.profile.PlayerActivityCache;
 import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
 import nl.rutgerkok.blocklocker.impl.updater.Updater;
 import nl.rutgerkok.blocklocker.location.CombinedLocationChecker;
@@ -43,17 +49,26 @@ import nl.rutgerkok.blocklocker.location.LocationChecker;
 
 public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlugin {
 
+    private static final String LAST_SEEN_FILE = "last_seen.dat";
+
     private ChestSettings chestSettings;
     private CombinedGroupSystem combinedGroupSystem;
     private Config config;
+    private ContainerGroupCache containerGroupCache;
+    private DoorCache doorCache;
+    private CachingGroupSystem groupMembershipCache;
     private ProfileFactoryImpl profileFactory;
-    private ProtectionFinderImpl protectionFinder;
+    private PerformanceStatisticsImpl performanceStatistics;
+    private LastSeenStore lastSeenStore;
+    private PlayerActivityCache playerActivityCache;
+    private ProtectionFinder protectionFinder;
     private ProtectionUpdater protectionUpdater;
     private SignParser signParser;
     private Translator translator;
     private CombinedLocationChecker combinedLocationChecker;
     private SchedulerSupport schedulerSupport;
-    private ProtectionCache protectionCache;
+    private HopperCacheImpl protectionCache;
+    private SignCache signCache;
 
     @Override
     public <E extends Event> E callEvent(E event) {
@@ -66,12 +81,63 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
         return chestSettings;
     }
 
+    /**
+     * Gets the cache of connected containers.
+     *
+     * @return The cache.
+     */
+    public ContainerGroupCache getContainerGroupCache() {
+        return containerGroupCache;
+    }
+
+    /**
+     * Gets the cache of the groups players are in.
+     *
+     * @return The cache.
+     */
+    public CachingGroupSystem getGroupMembershipCache() {
+        return groupMembershipCache;
+    }
+
+    /**
+     * Gets the cache of the shapes of doors.
+     *
+     * @return The cache.
+     */
+    public DoorCache getDoorCache() {
+        return doorCache;
+    }
+
     @Override
     public CombinedGroupSystem getGroupSystems() {
         Preconditions.checkState(combinedGroupSystem != null);
         return combinedGroupSystem;
     }
 
+    /**
+     * Gets the protection cache, with the methods that are not part of the
+     * API.
+     *
+     * @return The cache.
+     */
+    public HopperCacheImpl getHopperCache() {
+        return protectionCache;
+    }
+
+    @Override
+    public PerformanceStatistics getPerformanceStatistics() {
+        return performanceStatistics;
+    }
+
+    /**
+     * Gets the cache of the times players were last online.
+     *
+     * @return The cache.
+     */
+    public PlayerActivityCache getPlayerActivityCache() {
+        return playerActivityCache;
+    }
+
     @Override
     public ProtectionCache getProtectionCache() {
         return protectionCache;
@@ -136,6 +202,15 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
         return signParser;
     }
 
+    /**
+     * Gets the cache of parsed signs.
+     *
+     * @return The cache.
+     */
+    public SignCache getSignCache() {
+        return signCache;
+    }
+
     @Override
     public Translator getTranslator() {
         return translator;
@@ -186,13 +261,21 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
         translator = loadTranslations(config.getLanguageFileName());
 
         // Parsers and finders
-        profileFactory = new ProfileFactoryImpl(combinedGroupSystem, translator);
+        playerActivityCache = new PlayerActivityCache(schedulerSupport::runAsync, PlayerActivityCache::readLastPlayed,
+                lastSeenStore);
+        groupMembershipCache = new CachingGroupSystem(combinedGroupSystem);
+        profileFactory = new ProfileFactoryImpl(groupMembershipCache, translator, playerActivityCache);
         chestSettings = new ChestSettingsImpl(translator, config);
-        signParser = new SignParserImpl(chestSettings, profileFactory);
-        BlockFinder blockFinder = BlockFinder.create(signParser, config.getConnectContainers());
-        protectionFinder = new ProtectionFinderImpl(blockFinder, chestSettings);
+        signCache = new SignCache();
+        signParser = new SignParserImpl(chestSettings, profileFactory, signCache, getLogger());
+        containerGroupCache = new ContainerGroupCache();
+        BlockFinder blockFinder = BlockFinder.create(signParser, config.getConnectContainers(), containerGroupCache);
+        doorCache = new DoorCache();
+        protectionFinder = new TimedProtectionFinder(
+                new ProtectionFinderImpl(blockFinder, chestSettings, doorCache),
+                performanceStatistics);
         protectionUpdater = new ProtectionUpdaterImpl(getServer(), signParser, profileFactory);
-        protectionCache = new HopperCacheImpl();
+        protectionCache = new HopperCacheImpl(config);
     }
 
     private Translator loadTranslations(String fileName) {
@@ -219,8 +302,21 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
         return translator;
     }
 
+    @Override
+    public void onDisable() {
+        if (lastSeenStore != null) {
+            try {
+                lastSeenStore.close();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Failed to close " + LAST_SEEN_FILE, e);
+            }
+        }
+    }
+
     @Override
     public void onEnable() {
+        performanceStatistics = new PerformanceStatisticsImpl(this);
+        lastSeenStore = openLastSeenStore();
         loadServices();
         
         // Events
@@ -230,19 +326,33 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
         new Updater(config.getUpdatePreference(), translator, this).startUpdater();
     }
 
+    private LastSeenStore openLastSeenStore() {
+        try {
+            Files.createDirectories(getDataFolder().toPath());
+            // The scheduler support is only created later on
+            return LastSeenStore.open(getDataFolder().toPath().resolve(LAST_SEEN_FILE), getLogger(),
+                    runnable -> schedulerSupport.runAsync(runnable));
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Failed to read " + LAST_SEEN_FILE + ", last seen times will not be saved", e);
+            return LastSeenStore.inMemory();
+        }
+    }
+
     /**
      * Registers all events of this plugin.
      */
     private void registerEvents() {
         PluginManager plugins = Bukkit.getPluginManager();
-        plugins.registerEvents(new BlockDestroyListener(this), this);
-        plugins.registerEvents(new BlockPlaceListener(this), this);
-        plugins.registerEvents(new InteractListener(this), this);
+        registerEvents(plugins, new BlockDestroyListener(this));
+        registerEvents(plugins, new BlockPlaceListener(this));
+        registerEvents(plugins, new ChunkListener(this));
+        registerEvents(plugins, new InteractListener(this));
+        registerEvents(plugins, new PlayerActivityListener(this));
 
         // Copper golem listener is not available on Spigot & older Minecraft versions
         try {
             Class.forName("io.papermc.paper.event.entity.ItemTransportingEntityValidateTargetEvent");
-            plugins.registerEvents(new GolemListener(this), this);
+            registerEvents(plugins, new GolemListener(this));
         } catch (ClassNotFoundException e) {
             if (!config.allowDestroyBy(AttackType.GOLEM)) {
                 getLogger().warning("Failed to register copper golem listener. Paper 1.21.10+ is required for this" +
@@ -250,10 +360,23 @@ public class BlockLockerPluginImpl extends JavaPlugin implements BlockLockerPlug
             }
         }
 
-        plugins.registerEvents(new SignChangeListener(this), this);
+        registerEvents(plugins, new SignChangeListener(this));
         getCommand(getName().toLowerCase(Locale.ROOT)).setExecutor(new BlockLockerCommand(this));
     }
 
+    /**
+     * Registers all event handlers of the listener, recording how long each
+     * handler takes.
+     *
+     * @param plugins
+     *            The plugin manager.
+     * @param listener
+     *            The listener.
+     */
+    private void registerEvents(PluginManager plugins, Listener listener) {
+        TimedEventExecutor.registerEvents(plugins, listener, this, performanceStatistics);
+    }
+
     @Override
     public void reload() {
         Collection<GroupSystem> keepGroupSystems = this.combinedGroupSystem.getReloadSurvivors();
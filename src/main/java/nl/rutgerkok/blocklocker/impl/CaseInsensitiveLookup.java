@@ -0,0 +1,150 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Immutable map with case-insensitive string keys. Looking up a key doesn't
+ * allocate any objects, and can be done on a part of a string, so it is well
+ * suited to classifying sign lines. Keys are compared like
+ * {@link String#equalsIgnoreCase(String)} does.
+ *
+ * @param <V>
+ *            Type of the values.
+ */
+public final class CaseInsensitiveLookup<V> {
+
+    /**
+     * Builder for the lookup. Adding the same key twice (ignoring case) keeps
+     * the first value.
+     *
+     * @param <V>
+     *            Type of the values.
+     */
+    public static final class Builder<V> {
+        private String[] keys = new String[8];
+        private int size;
+        private Object[] values = new Object[8];
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a key.
+         *
+         * @param key
+         *            The key.
+         * @param value
+         *            The value.
+         * @return This builder, for chaining.
+         */
+        public Builder<V> add(String key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * Creates the lookup.
+         *
+         * @return The lookup.
+         */
+        public CaseInsensitiveLookup<V> build() {
+            return new CaseInsensitiveLookup<>(this);
+        }
+    }
+
+    /**
+     * Creates a builder for a new lookup.
+     *
+     * @param <V>
+     *            Type of the values.
+     * @return The builder.
+     */
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    private static char fold(char c) {
+        // Same as String.equalsIgnoreCase, which checks both cases to handle
+        // for example the Georgian alphabet
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private final String[] keys;
+    private final int mask;
+    private final Object[] values;
+
+    private CaseInsensitiveLookup(Builder<V> builder) {
+        // Open addressing, with a load factor of at most 0.5
+        int capacity = Integer.highestOneBit(Math.max(1, builder.size) * 2 - 1) * 2;
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < builder.size; i++) {
+            String key = builder.keys[i];
+            int slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null && !keys[slot].equalsIgnoreCase(key)) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                values[slot] = builder.values[i];
+            }
+        }
+    }
+
+    /**
+     * Gets the value of the given key.
+     *
+     * @param key
+     *            The key.
+     * @return The value, or null if not found.
+     */
+    public V get(String key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * Gets the value of the key formed by a part of the given text.
+     *
+     * @param text
+     *            The text.
+     * @param start
+     *            Start of the key in the text, inclusive.
+     * @param end
+     *            End of the key in the text, exclusive.
+     * @return The value, or null if not found.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String text, int start, int end) {
+        int length = end - start;
+        int slot = hash(text, start, end) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.length() == length && key.regionMatches(true, 0, text, start, length)) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+}
@@ -111,6 +111,10 @@ class ChestSettingsImpl implements ChestSettings {
 
     @Override
     public Optional<ProtectionType> getProtectionType(Block block) {
+        if (this.extraProtectables.isEmpty()) {
+            // Common case, just a lookup in the table of the config
+            return Optional.ofNullable(config.getProtectionType(block));
+        }
         for (ProtectionType type : PROTECTION_TYPES) {
             if (canProtect(type, block)) {
                 return Optional.of(type);
@@ -0,0 +1,222 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import nl.rutgerkok.blocklocker.SecretSignEntry;
+
+/**
+ * Implements a secret sign entry that is stored, together with the other
+ * entries on the same sign, in a single byte array. Much smaller and faster to
+ * read than a {@link NbtSecretSignEntry} per profile.
+ *
+ * <p>
+ * Format (version 1): a version byte, followed by the number of entries. Each
+ * entry starts with its number of values. Each value consists of the key, a
+ * type byte and then the value itself. Strings are stored as UTF-8 prefixed by
+ * their length, unique ids as 16 bytes and integers in zigzag encoding.
+ * Lengths, counts and integers are all stored as variable-length integers.
+ * Booleans have no value; it is part of the type byte.
+ */
+public final class CompactSecretSignEntry implements SecretSignEntry {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_FALSE = 0;
+    private static final byte TYPE_TRUE = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_UNIQUE_ID = 4;
+
+    /**
+     * Reads all entries from the given bytes.
+     *
+     * @param bytes
+     *            The bytes, as written by {@link #encode(List)}.
+     * @return The entries, or empty if the bytes are corrupted or written by a
+     *         newer version of the plugin.
+     */
+    public static Optional<List<CompactSecretSignEntry>> decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.get() != VERSION) {
+                return Optional.empty();
+            }
+            int entryCount = readCount(buffer);
+            List<CompactSecretSignEntry> entries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                CompactSecretSignEntry entry = new CompactSecretSignEntry();
+                int valueCount = readCount(buffer);
+                for (int j = 0; j < valueCount; j++) {
+                    String key = readString(buffer);
+                    entry.values.put(key, readValue(buffer));
+                }
+                entries.add(entry);
+            }
+            return Optional.of(entries);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes all entries to a byte array.
+     *
+     * @param entries
+     *            The entries.
+     * @return The bytes.
+     */
+    public static byte[] encode(List<CompactSecretSignEntry> entries) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(16 + entries.size() * 24);
+        stream.write(VERSION);
+        writeVarInt(stream, entries.size());
+        for (CompactSecretSignEntry entry : entries) {
+            writeVarInt(stream, entry.values.size());
+            for (Map.Entry<String, Object> value : entry.values.entrySet()) {
+                writeString(stream, value.getKey());
+                writeValue(stream, value.getValue());
+            }
+        }
+        return stream.toByteArray();
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        int count = readVarInt(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            // Every item takes at least one byte
+            throw new IllegalArgumentException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readCount(buffer);
+        String string = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_INTEGER:
+                int zigzag = readVarInt(buffer);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            case TYPE_STRING:
+                return readString(buffer);
+            case TYPE_UNIQUE_ID:
+                return new UUID(buffer.getLong(), buffer.getLong());
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Variable-length integer is too long");
+    }
+
+    private static void writeString(ByteArrayOutputStream stream, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(stream, bytes.length);
+        stream.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeValue(ByteArrayOutputStream stream, Object value) {
+        if (value instanceof Boolean) {
+            stream.write((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Integer) {
+            int integer = (Integer) value;
+            stream.write(TYPE_INTEGER);
+            writeVarInt(stream, (integer << 1) ^ (integer >> 31));
+        } else if (value instanceof String) {
+            stream.write(TYPE_STRING);
+            writeString(stream, (String) value);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            stream.write(TYPE_UNIQUE_ID);
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+            stream.write(buffer.array(), 0, 16);
+        } else {
+            throw new AssertionError("Unknown value: " + value);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream stream, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            stream.write((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        stream.write(remaining);
+    }
+
+    private final Map<String, Object> values = new LinkedHashMap<>(4);
+
+    @Override
+    public Optional<Boolean> getBoolean(String key) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? Optional.of((Boolean) value) : Optional.empty();
+    }
+
+    @Override
+    public OptionalInt getInteger(String key) {
+        Object value = values.get(key);
+        return value instanceof Integer ? OptionalInt.of((Integer) value) : OptionalInt.empty();
+    }
+
+    @Override
+    public Optional<String> getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String ? Optional.of((String) value) : Optional.empty();
+    }
+
+    @Override
+    public Optional<UUID> getUniqueId(String key) {
+        Object value = values.get(key);
+        return value instanceof UUID ? Optional.of((UUID) value) : Optional.empty();
+    }
+
+    @Override
+    public void setBoolean(String key, boolean value) {
+        values.put(Objects.requireNonNull(key, "key"), value);
+    }
+
+    @Override
+    public void setInteger(String key, int value) {
+        values.put(Objects.requireNonNull(key, "key"), value);
+    }
+
+    @Override
+    public void setString(String key, String value) {
+        values.put(Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+    }
+
+    @Override
+    public void setUniqueId(String key, UUID value) {
+        values.put(Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+    }
+
+}
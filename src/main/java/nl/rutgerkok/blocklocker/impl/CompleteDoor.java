@@ -297,6 +297,27 @@ public final class CompleteDoor {
         return (materialData instanceof Door) && ((Door) materialData).isOpen();
     }
 
+    /**
+     * Gets the material of the door.
+     *
+     * @return The material.
+     */
+    Material getDoorMaterial() {
+        return doorMaterial;
+    }
+
+    /**
+     * Checks whether the bottom blocks of the door are still door blocks of
+     * the same material. Used to notice doors that were broken without an
+     * event.
+     *
+     * @return True if the bottom blocks are unchanged, false otherwise.
+     */
+    boolean hasSameBottomBlocks() {
+        return (bottomLeftBlock == null || bottomLeftBlock.getType() == doorMaterial)
+                && (bottomRightBlock == null || bottomRightBlock.getType() == doorMaterial);
+    }
+
     private void playSound(Block bottomBlock, boolean open, SoundCondition condition) {
         if (condition == SoundCondition.NEVER) {
             return;
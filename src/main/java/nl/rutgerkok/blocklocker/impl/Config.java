@@ -11,6 +11,7 @@ import java.util.logging.Logger;
 
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import nl.rutgerkok.blocklocker.AttackType;
@@ -22,6 +23,51 @@ import org.jspecify.annotations.Nullable;
 
 final class Config {
 
+    /**
+     * Size and expire time of the redstone/golem protection cache.
+     */
+    static final class CacheSettings {
+        private static final int MIN_CAPACITY = 16;
+        private static final int MAX_CAPACITY = 1 << 20;
+
+        private final int capacity;
+        private final int expireSeconds;
+
+        private CacheSettings(int capacity, int expireSeconds) {
+            this.capacity = capacity;
+            this.expireSeconds = expireSeconds;
+        }
+
+        /**
+         * Gets the number of blocks that can be cached per world. Always a
+         * power of two.
+         *
+         * @return The capacity.
+         */
+        int getCapacity() {
+            int clamped = Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, capacity));
+            return Integer.highestOneBit(clamped - 1) << 1;
+        }
+
+        /**
+         * Gets how long an entry stays in the cache, if it isn't invalidated
+         * before that time.
+         *
+         * @return The time in seconds.
+         */
+        int getExpireSeconds() {
+            return Math.max(1, expireSeconds);
+        }
+
+        private CacheSettings withOverrides(@Nullable ConfigurationSection section) {
+            if (section == null) {
+                return this;
+            }
+            return new CacheSettings(section.getInt(Key.CACHE_CAPACITY, capacity),
+                    section.getInt(Key.CACHE_EXPIRE_SECONDS, expireSeconds));
+        }
+    }
+
     private final static class Key {
         private final static String LANGUAGE_FILE = "languageFile",
                 PROTECTABLE_CONTAINERS = "protectableContainers",
@@ -33,10 +79,15 @@ final class Config {
                 CONNECT_CONTAINERS = "connectContainers",
                 AUTO_EXPIRE_DAYS = "autoExpireDays",
                 ALLOW_DESTROY_BY = "allowDestroyBy",
+                PROTECTION_CACHE = "protectionCache",
+                CACHE_CAPACITY = "capacity",
+                CACHE_EXPIRE_SECONDS = "expireSeconds",
+                CACHE_WORLDS = "worlds",
                 CONFIG_VERSION = "configVersion";
     }
 
     static final String DEFAULT_TRANSLATIONS_FILE = "translations-en.yml";
+    private static final ProtectionType[] PROTECTION_TYPES = ProtectionType.values();
 
     private final Set<AttackType> allowDestroyBy;
     private final int autoExpireDays;
@@ -44,11 +95,15 @@ final class Config {
     private final int defaultDoorOpenSeconds;
     private final String languageFile;
     private final Logger logger;
+    private final CacheSettings protectionCacheSettings;
+    private final Map<String, CacheSettings> protectionCacheWorldSettings;
     private final Map<ProtectionType, Set<Material>> protectableMaterialsMap;
     /**
-     * Combination of the sets of all individual protection types.
+     * For every material (by ordinal), the protection types that can protect
+     * it, as bits of the ordinals of the protection types. Combination of the
+     * sets of all individual protection types.
      */
-    private final Set<Material> protectableMaterialsSet;
+    private final byte[] protectionTypesByMaterial;
     private final UpdatePreference updatePreference;
 
     Config(Plugin plugin) {
@@ -62,6 +117,19 @@ final class Config {
         autoExpireDays = config.getInt(Key.AUTO_EXPIRE_DAYS);
         allowDestroyBy = readAttackTypeSet(config.getStringList(Key.ALLOW_DESTROY_BY));
 
+        // Cache
+        ConfigurationSection cacheSection = config.getConfigurationSection(Key.PROTECTION_CACHE);
+        protectionCacheSettings = new CacheSettings(8192, 10).withOverrides(cacheSection);
+        protectionCacheWorldSettings = new HashMap<>();
+        ConfigurationSection worldsSection = cacheSection == null ? null
+                : cacheSection.getConfigurationSection(Key.CACHE_WORLDS);
+        if (worldsSection != null) {
+            for (String worldName : worldsSection.getKeys(false)) {
+                protectionCacheWorldSettings.put(worldName,
+                        protectionCacheSettings.withOverrides(worldsSection.getConfigurationSection(worldName)));
+            }
+        }
+
         // Materials
         protectableMaterialsMap = new EnumMap<>(ProtectionType.class);
         protectableMaterialsMap.put(ProtectionType.CONTAINER, readMaterialSet(config.getStringList(Key.PROTECTABLE_CONTAINERS)));
@@ -75,10 +143,12 @@ final class Config {
                     readMaterialSet(config.getStringList(Key.PROTECTABLE_ATTACHABLES)));
         }
 
-        // Create combined set
-        protectableMaterialsSet = new HashSet<>();
-        for (Set<Material> protectableByType : protectableMaterialsMap.values()) {
-            protectableMaterialsSet.addAll(protectableByType);
+        // Create combined lookup table
+        protectionTypesByMaterial = new byte[Material.values().length];
+        for (Map.Entry<ProtectionType, Set<Material>> entry : protectableMaterialsMap.entrySet()) {
+            for (Material material : entry.getValue()) {
+                protectionTypesByMaterial[material.ordinal()] |= (byte) (1 << entry.getKey().ordinal());
+            }
         }
 
         // Config upgrades
@@ -145,7 +215,7 @@ final class Config {
      *         otherwise.
      */
     boolean canProtect(Block block) {
-        return protectableMaterialsSet.contains(block.getType());
+        return protectionTypesByMaterial[block.getType().ordinal()] != 0;
     }
 
     /**
@@ -161,11 +231,7 @@ final class Config {
      *         otherwise.
      */
     boolean canProtect(ProtectionType type, Block block) {
-        Set<Material> materials = this.protectableMaterialsMap.get(type);
-        if (materials == null) {
-            return false;
-        }
-        return materials.contains(block.getType());
+        return (protectionTypesByMaterial[block.getType().ordinal()] & (1 << type.ordinal())) != 0;
     }
 
     /**
@@ -198,6 +264,34 @@ final class Config {
         return defaultDoorOpenSeconds;
     }
 
+    /**
+     * Gets the first protection type (in the order of
+     * {@link ProtectionType#values()}) that can protect the block.
+     *
+     * @param block
+     *            Block to check.
+     * @return The protection type, or null if the block cannot be protected.
+     */
+    @Nullable ProtectionType getProtectionType(Block block) {
+        int types = protectionTypesByMaterial[block.getType().ordinal()];
+        if (types == 0) {
+            return null;
+        }
+        return PROTECTION_TYPES[Integer.numberOfTrailingZeros(types)];
+    }
+
+    /**
+     * Gets the settings of the redstone/golem protection cache for the given
+     * world.
+     *
+     * @param worldName
+     *            Name of the world.
+     * @return The settings.
+     */
+    CacheSettings getProtectionCacheSettings(String worldName) {
+        return protectionCacheWorldSettings.getOrDefault(worldName, protectionCacheSettings);
+    }
+
     /**
      * Gets the file name of the selected language.
      *
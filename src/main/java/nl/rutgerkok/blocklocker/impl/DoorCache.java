@@ -0,0 +1,191 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+
+/**
+ * Remembers the shape of doors, so that doors that are opened and closed
+ * often (for example by villagers) don't need to be looked at again every
+ * time. Only the blocks of the door are remembered; whether the door is open
+ * is always read from the world.
+ *
+ * <p>
+ * Entries must be invalidated whenever a protectable block is placed or
+ * broken near the door, which includes blocks destroyed by explosions, fire
+ * and pistons. Blocks can also be changed without any event, so entries
+ * expire after a minute as well, and entries are ignored when the block or
+ * the bottom blocks of the door changed type.
+ *
+ * <p>
+ * Entries are never searched for when they are invalidated. Instead, each
+ * world remembers when chunks were last invalidated, and doors that were
+ * stored before that time are ignored. Chunks can share such a time, which
+ * just means that some doors are forgotten too early.
+ */
+public final class DoorCache {
+
+    private record Entry(CompleteDoor door, long storeTime) {
+    }
+
+    /**
+     * The doors of a single world.
+     */
+    private final class WorldDoors {
+        private final Cache<Long, Entry> cache;
+        /**
+         * Times in {@link System#nanoTime()} at which chunks were last
+         * invalidated, indexed by {@link DoorCache#chunkSlot(long)}.
+         */
+        private final AtomicLongArray chunkInvalidateTimes = new AtomicLongArray(CHUNK_SLOTS);
+
+        private WorldDoors() {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_SIZE)
+                    .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
+                    .removalListener(notification -> {
+                        if (notification.getCause() == RemovalCause.SIZE) {
+                            evictions.increment();
+                        }
+                    })
+                    .build();
+
+            // Doors stored after this moment are valid
+            long createTime = System.nanoTime();
+            for (int i = 0; i < CHUNK_SLOTS; i++) {
+                chunkInvalidateTimes.set(i, createTime - 1);
+            }
+        }
+
+        private boolean isValid(long position, Entry entry) {
+            long invalidateTime = chunkInvalidateTimes.get(chunkSlot(chunkOf(position)));
+            return entry.storeTime - invalidateTime > 0;
+        }
+    }
+
+    /**
+     * Number of invalidation times kept per world.
+     */
+    private static final int CHUNK_SLOTS = 1024;
+    private static final long EXPIRE_TIME_SECONDS = 60;
+    /**
+     * A placed or broken door block can change the shape of doors up to this
+     * many blocks away: one block for the neighbouring door, plus one for the
+     * other half of that door.
+     */
+    private static final int MAX_DISTANCE = 2;
+    /**
+     * Maximum number of doors per world.
+     */
+    private static final long MAX_SIZE = 10_000;
+
+    private static long chunkOf(long position) {
+        return PackedPosition.packChunk(PackedPosition.unpackX(position) >> 4, PackedPosition.unpackZ(position) >> 4);
+    }
+
+    private static int chunkSlot(long chunk) {
+        long hash = chunk * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (CHUNK_SLOTS - 1);
+    }
+
+    private final Map<UUID, WorldDoors> worlds = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Forgets all doors of the given world, for example because the world is
+     * unloaded.
+     *
+     * @param world
+     *            The world.
+     */
+    public void forgetWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Gets the door from the cache, or looks at the world if the door isn't
+     * cached.
+     *
+     * @param doorBlock
+     *            A block that is part of the door.
+     * @return The door.
+     */
+    CompleteDoor get(Block doorBlock) {
+        WorldDoors doors = worlds.computeIfAbsent(doorBlock.getWorld().getUID(), uuid -> new WorldDoors());
+        long position = PackedPosition.pack(doorBlock);
+        Entry entry = doors.cache.getIfPresent(position);
+        if (entry == null || !doors.isValid(position, entry)
+                || entry.door.getDoorMaterial() != doorBlock.getType() || !entry.door.hasSameBottomBlocks()) {
+            // Stored with the time the lookup started, so that the door is
+            // ignored if the chunk is invalidated in the meantime
+            long now = System.nanoTime();
+            entry = new Entry(new CompleteDoor(doorBlock), now);
+            doors.cache.put(position, entry);
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry.door;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts of this cache. Doors that were
+     * found but were no longer valid count as misses. Other values of the
+     * statistics are always zero.
+     *
+     * @return The statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, evictions.sum());
+    }
+
+    /**
+     * Forgets all doors that could be affected by a change of the given block.
+     * Call this method when a protectable block was placed or broken. All
+     * chunks within reach are forgotten, which is at most four chunks.
+     *
+     * @param block
+     *            The block.
+     */
+    public void invalidateAround(Block block) {
+        WorldDoors doors = worlds.get(block.getWorld().getUID());
+        if (doors == null) {
+            return;
+        }
+        int x = block.getX();
+        int z = block.getZ();
+        long now = System.nanoTime();
+        for (int chunkX = (x - MAX_DISTANCE) >> 4; chunkX <= (x + MAX_DISTANCE) >> 4; chunkX++) {
+            for (int chunkZ = (z - MAX_DISTANCE) >> 4; chunkZ <= (z + MAX_DISTANCE) >> 4; chunkZ++) {
+                doors.chunkInvalidateTimes.set(chunkSlot(PackedPosition.packChunk(chunkX, chunkZ)), now);
+            }
+        }
+    }
+
+    /**
+     * Gets the approximate number of cached doors. Doors that were invalidated
+     * are counted until they are replaced or expire.
+     *
+     * @return The number of doors.
+     */
+    public long size() {
+        long size = 0;
+        for (WorldDoors doors : worlds.values()) {
+            size += doors.cache.size();
+        }
+        return size;
+    }
+}
@@ -1,54 +1,379 @@
 package nl.rutgerkok.blocklocker.impl;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.bukkit.Chunk;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 
 import nl.rutgerkok.blocklocker.ProtectionCache;
 
-final class HopperCacheImpl implements ProtectionCache {
+/**
+ * Implementation of {@link ProtectionCache}. The listeners of this plugin
+ * invalidate the cache when protections change. Entries still expire after a
+ * few seconds, as other plugins can change blocks without an event.
+ *
+ * <p>
+ * On Folia, hoppers in different regions are ticked by different threads at
+ * the same time. To keep those threads from waiting on each other, the table
+ * of each world is split into stripes, each with its own lock. All blocks in a
+ * chunk share a stripe, so threads only meet when their chunks happen to end
+ * up in the same stripe.
+ *
+ * <p>
+ * Entries are never searched for when they are invalidated. Instead, each
+ * stripe remembers when chunks were last invalidated, and entries that were
+ * stored before that time are ignored. Chunks can share such a time, which
+ * just means that some entries are forgotten too early.
+ *
+ * <p>
+ * An entry counts as stored at the time of the cache miss that preceded it on
+ * the same thread, not at the time {@link #setAllowed(Block, CacheType, boolean)}
+ * is called. On Folia, a chunk can be invalidated by another thread while the
+ * protection is being looked up. The result of that lookup is then already
+ * outdated, and is not stored.
+ */
+public final class HopperCacheImpl implements ProtectionCache {
 
-    private static final long EXPIRE_TIME_SECONDS = 10;
-    private final Cache<Block, Boolean> redstoneCache;
-    private final Cache<Block, Boolean> golemCache;
+    /**
+     * Open addressing hash table from packed block positions to whether
+     * redstone/golems are allowed there. The table never grows: if all slots
+     * that a position can be stored in are taken, the entry that is closest to
+     * expiring is replaced.
+     */
+    private final class Stripe {
+        /**
+         * Number of slots that are tried for a position.
+         */
+        private static final int PROBE_LENGTH = 8;
+        /**
+         * Number of invalidation times kept per stripe.
+         */
+        private static final int CHUNK_SLOTS = 256;
 
-    HopperCacheImpl() {
-        redstoneCache = CacheBuilder.newBuilder().initialCapacity(1000)
-                .maximumSize(5000)
-                .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
-                .build();
-        golemCache = CacheBuilder.newBuilder().initialCapacity(1000)
-                .maximumSize(5000)
-                .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
-                .build();
+        private final long expireTimeNanos;
+        private final long[] positions;
+        /**
+         * Expire times in {@link System#nanoTime()}. Zero for empty slots.
+         */
+        private final long[] expireTimes;
+        private final boolean[] allowed;
+        /**
+         * Times in {@link System#nanoTime()} at which chunks were last
+         * invalidated, indexed by {@link #chunkSlot(long)}.
+         */
+        private final long[] chunkInvalidateTimes;
+        private final int mask;
+
+        private Stripe(int capacity, long expireTimeNanos, long createTime) {
+            this.expireTimeNanos = expireTimeNanos;
+            positions = new long[capacity];
+            expireTimes = new long[capacity];
+            allowed = new boolean[capacity];
+            chunkInvalidateTimes = new long[CHUNK_SLOTS];
+            // Entries stored after the stripe was created are valid
+            Arrays.fill(chunkInvalidateTimes, createTime - 1);
+            mask = capacity - 1;
+        }
+
+        private int findFreeOrOldestSlot(long position, long now) {
+            int firstSlot = firstSlot(position);
+            int oldestSlot = firstSlot;
+            for (int i = 0; i < PROBE_LENGTH; i++) {
+                int slot = (firstSlot + i) & mask;
+                if (isFree(slot, now)) {
+                    return slot;
+                }
+                if (expireTimes[slot] - expireTimes[oldestSlot] < 0) {
+                    oldestSlot = slot;
+                }
+            }
+            return oldestSlot;
+        }
+
+        private int findSlot(long position) {
+            int firstSlot = firstSlot(position);
+            for (int i = 0; i < PROBE_LENGTH; i++) {
+                int slot = (firstSlot + i) & mask;
+                if (positions[slot] == position && expireTimes[slot] != 0) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int firstSlot(long position) {
+            long hash = position * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        /**
+         * Makes all entries of the given chunk that are stored before now
+         * invalid.
+         */
+        private synchronized void invalidateChunk(long chunk, long now) {
+            chunkInvalidateTimes[chunkSlot(chunk)] = now;
+        }
+
+        private synchronized int size(long now) {
+            int size = 0;
+            for (int slot = 0; slot < positions.length; slot++) {
+                if (!isFree(slot, now)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        private synchronized CacheFlag get(long position, long now) {
+            int slot = findSlot(position);
+            if (slot == -1) {
+                misses.increment();
+                return CacheFlag.MISS_CACHE;
+            }
+            if (isFree(slot, now)) {
+                expireTimes[slot] = 0;
+                misses.increment();
+                return CacheFlag.MISS_CACHE;
+            }
+            hits.increment();
+            return allowed[slot] ? CacheFlag.ALLOWED : CacheFlag.NOT_ALLOWED;
+        }
+
+        private boolean isFree(int slot, long now) {
+            long expireTime = expireTimes[slot];
+            if (expireTime == 0 || expireTime - now <= 0) {
+                return true;
+            }
+            long storeTime = expireTime - expireTimeNanos;
+            long invalidateTime = chunkInvalidateTimes[chunkSlot(chunkOf(positions[slot]))];
+            return storeTime - invalidateTime <= 0;
+        }
+
+        /**
+         * Stores an entry, unless the chunk was invalidated after the lookup
+         * of the value started.
+         */
+        private synchronized void put(long position, boolean isAllowed, long lookupTime, long now) {
+            long expireTime = lookupTime + expireTimeNanos;
+            long invalidateTime = chunkInvalidateTimes[chunkSlot(chunkOf(position))];
+            if (lookupTime - invalidateTime <= 0 || expireTime - now <= 0) {
+                return;
+            }
+            int slot = findSlot(position);
+            if (slot == -1) {
+                slot = findFreeOrOldestSlot(position, now);
+                if (!isFree(slot, now)) {
+                    evictions.increment();
+                }
+            }
+            positions[slot] = position;
+            expireTimes[slot] = expireTime == 0 ? 1 : expireTime; // Zero is reserved for empty slots
+            allowed[slot] = isAllowed;
+        }
     }
 
-    private Cache<Block, Boolean> getCache(CacheType cacheType) {
-        return switch (cacheType) {
-            case REDSTONE -> this.redstoneCache;
-            case GOLEM -> this.golemCache;
+    /**
+     * All stripes of a single world.
+     */
+    private final class Table {
+        private final int stripeMask;
+        private final Stripe[] stripes;
+
+        private Table(int capacity, long expireTimeNanos) {
+            int stripeCount = Math.max(1, Math.min(MAX_STRIPES, capacity / MIN_STRIPE_CAPACITY));
+            long createTime = System.nanoTime();
+            stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe(capacity / stripeCount, expireTimeNanos, createTime);
+            }
+            stripeMask = stripeCount - 1;
+        }
+
+        private CacheFlag get(long position, long now) {
+            return getStripe(chunkOf(position)).get(position, now);
+        }
+
+        private Stripe getStripe(long chunk) {
+            return stripes[(int) (hashChunk(chunk) >>> 32) & stripeMask];
+        }
+
+        private void invalidateChunk(long chunk, long now) {
+            getStripe(chunk).invalidateChunk(chunk, now);
+        }
+
+        private void put(long position, boolean isAllowed, long lookupTime, long now) {
+            getStripe(chunkOf(position)).put(position, isAllowed, lookupTime, now);
+        }
+
+        private int size(long now) {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                size += stripe.size(now);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * A sign can protect blocks up to this many blocks away: ten blocks for
+     * connected containers, plus one for the sign itself, plus one for a block
+     * that supports a protected block.
+     */
+    private static final int MAX_SIGN_DISTANCE = 12;
+    /**
+     * Maximum number of stripes of a single table. More stripes means less
+     * waiting, but also that entries in busy chunks are evicted sooner.
+     */
+    private static final int MAX_STRIPES = 64;
+    /**
+     * Stripes are never made smaller than this.
+     */
+    private static final int MIN_STRIPE_CAPACITY = 256;
+
+    private static long chunkOf(long position) {
+        return PackedPosition.packChunk(PackedPosition.unpackX(position) >> 4, PackedPosition.unpackZ(position) >> 4);
+    }
+
+    /**
+     * Gets the index in {@link Stripe#chunkInvalidateTimes} of the given
+     * chunk. Uses other bits of the hash than {@link Table#getStripe(long)},
+     * so that the chunks of a stripe are spread over all slots.
+     */
+    private static int chunkSlot(long chunk) {
+        return (int) (hashChunk(chunk) >>> 48) & (Stripe.CHUNK_SLOTS - 1);
+    }
+
+    private static long hashChunk(long chunk) {
+        return chunk * 0x9E3779B97F4A7C15L;
+    }
+
+    private final Config config;
+    private final Map<UUID, Table> redstoneTables = new ConcurrentHashMap<>();
+    private final Map<UUID, Table> golemTables = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    /**
+     * Time in {@link System#nanoTime()} of the last cache miss on each thread,
+     * or null if the miss has already been followed by a store.
+     */
+    private final ThreadLocal<Long> missTimes = new ThreadLocal<>();
+
+    HopperCacheImpl(Config config) {
+        this.config = config;
+    }
+
+    private Table createTable(World world) {
+        Config.CacheSettings settings = config.getProtectionCacheSettings(world.getName());
+        return new Table(settings.getCapacity(), TimeUnit.SECONDS.toNanos(settings.getExpireSeconds()));
+    }
+
+    private Table getTable(Block block, CacheType cacheType) {
+        Map<UUID, Table> tables = switch (cacheType) {
+            case REDSTONE -> this.redstoneTables;
+            case GOLEM -> this.golemTables;
         };
+        World world = block.getWorld();
+        return tables.computeIfAbsent(world.getUID(), uuid -> createTable(world));
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts of this cache. Other values of
+     * the statistics are always zero.
+     *
+     * @return The statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, evictions.sum());
     }
 
     @Override
     public CacheFlag getAllowed(Block block, CacheType cacheType) {
-        Boolean isAllowed = getCache(cacheType).getIfPresent(block);
-
-        if (isAllowed == null) {
-            return CacheFlag.MISS_CACHE;
+        Table table = getTable(block, cacheType);
+        long now = System.nanoTime();
+        CacheFlag flag = table.get(PackedPosition.pack(block), now);
+        if (flag == CacheFlag.MISS_CACHE) {
+            missTimes.set(now);
         }
-        if (isAllowed) {
-            return CacheFlag.ALLOWED;
-        } else {
-            return CacheFlag.NOT_ALLOWED;
+        return flag;
+    }
+
+    /**
+     * Forgets everything that is cached for the given chunk, for example
+     * because the chunk is unloaded.
+     *
+     * @param chunk
+     *            The chunk.
+     */
+    public void invalidateChunk(Chunk chunk) {
+        invalidateChunks(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Forgets everything that is cached for blocks that a sign at the given
+     * position could protect. Call this method when a protection sign or a
+     * protectable block was added, changed or removed. All chunks within
+     * reach are forgotten, which is at most nine chunks.
+     *
+     * @param block
+     *            The block that changed.
+     */
+    public void invalidateAround(Block block) {
+        int x = block.getX();
+        int z = block.getZ();
+        invalidateChunks(block.getWorld().getUID(), (x - MAX_SIGN_DISTANCE) >> 4, (z - MAX_SIGN_DISTANCE) >> 4,
+                (x + MAX_SIGN_DISTANCE) >> 4, (z + MAX_SIGN_DISTANCE) >> 4);
+    }
+
+    private void invalidateChunks(UUID worldId, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        Table redstoneTable = redstoneTables.get(worldId);
+        Table golemTable = golemTables.get(worldId);
+        long now = System.nanoTime();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long chunk = PackedPosition.packChunk(chunkX, chunkZ);
+                if (redstoneTable != null) {
+                    redstoneTable.invalidateChunk(chunk, now);
+                }
+                if (golemTable != null) {
+                    golemTable.invalidateChunk(chunk, now);
+                }
+            }
         }
     }
 
     @Override
     public void setAllowed(Block block, CacheType cacheType, boolean allowed) {
-        getCache(cacheType).put(block, allowed);
+        long now = System.nanoTime();
+        Long missTime = missTimes.get();
+        missTimes.remove();
+        // Without a miss before, the value was looked up just now
+        long lookupTime = missTime == null ? now : missTime;
+        getTable(block, cacheType).put(PackedPosition.pack(block), allowed, lookupTime, now);
+    }
+
+    /**
+     * Counts the number of entries in the cache that have not expired yet.
+     *
+     * @return The number of entries.
+     */
+    public long size() {
+        long now = System.nanoTime();
+        long size = 0;
+        for (Table table : redstoneTables.values()) {
+            size += table.size(now);
+        }
+        for (Table table : golemTables.values()) {
+            size += table.size(now);
+        }
+        return size;
     }
 }
@@ -1,6 +1,5 @@
 package nl.rutgerkok.blocklocker.impl;
 
-import java.lang.ref.WeakReference;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -10,8 +9,6 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.persistence.PersistentDataAdapterContext;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.java.JavaPlugin;
 
 import nl.rutgerkok.blocklocker.SecretSignEntry;
 
@@ -49,11 +46,16 @@ public final class NbtSecretSignEntry implements SecretSignEntry {
 
     public static final PersistentDataType<PersistentDataContainer, NbtSecretSignEntry> TAG_TYPE = new SecretSignTagType();
 
-    private static final WeakReference<Plugin> PLUGIN = new WeakReference<>(
-            JavaPlugin.getProvidingPlugin(NbtSecretSignEntry.class));
+    /**
+     * Namespace of all keys. Equal to the lowercase plugin name, which is what
+     * {@link NamespacedKey#NamespacedKey(org.bukkit.plugin.Plugin, String)}
+     * would use. Not looked up from the plugin, so that this class also works
+     * without a running server.
+     */
+    private static final String NAMESPACE = "blocklocker";
 
     static NamespacedKey key(String name) {
-        return new NamespacedKey(PLUGIN.get(), name);
+        return Objects.requireNonNull(NamespacedKey.fromString(NAMESPACE + ":" + name), name);
     }
 
     private final PersistentDataContainer data;
@@ -0,0 +1,95 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import org.bukkit.block.Block;
+
+/**
+ * Packs block and chunk coordinates into a single {@code long}, so that they
+ * can be used as keys without creating {@link Block} objects. Uses the same
+ * layout as Minecraft itself: 26 bits for x and z, 12 bits for y.
+ *
+ */
+public final class PackedPosition {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int Z_SHIFT = Y_BITS;
+    private static final int X_SHIFT = Y_BITS + XZ_BITS;
+
+    /**
+     * Packs the position of the given block.
+     *
+     * @param block
+     *            The block.
+     * @return The packed position.
+     */
+    public static long pack(Block block) {
+        return pack(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Packs the given block coordinates.
+     *
+     * @param x
+     *            The x coordinate.
+     * @param y
+     *            The y coordinate.
+     * @param z
+     *            The z coordinate.
+     * @return The packed position.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    /**
+     * Packs the given chunk coordinates.
+     *
+     * @param chunkX
+     *            The chunk x, so block x divided by 16.
+     * @param chunkZ
+     *            The chunk z, so block z divided by 16.
+     * @return The packed chunk position.
+     */
+    public static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
+    }
+
+    /**
+     * Gets the x coordinate from a packed position.
+     *
+     * @param packed
+     *            The packed position.
+     * @return The x coordinate.
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> X_SHIFT);
+    }
+
+    /**
+     * Gets the y coordinate from a packed position.
+     *
+     * @param packed
+     *            The packed position.
+     * @return The y coordinate.
+     */
+    public static int unpackY(long packed) {
+        return (int) (packed << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    /**
+     * Gets the z coordinate from a packed position.
+     *
+     * @param packed
+     *            The packed position.
+     * @return The z coordinate.
+     */
+    public static int unpackZ(long packed) {
+        return (int) (packed << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+
+    private PackedPosition() {
+        // No instances
+    }
+}
@@ -0,0 +1,178 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+
+import nl.rutgerkok.blocklocker.PerformanceStatistics;
+
+/**
+ * Records how long event handlers and protection lookups take. Recording a
+ * call costs two calls to {@link System#nanoTime()} and two updates of
+ * striped counters, so it is always enabled.
+ *
+ */
+final class PerformanceStatisticsImpl implements PerformanceStatistics {
+
+    /**
+     * Histogram of the durations of a single operation. Bucket {@code i}
+     * counts the durations from {@code 2^(i-1)} up to {@code 2^i - 1}
+     * nanoseconds, bucket 0 counts durations of 0 nanoseconds.
+     */
+    static final class Timer {
+        private static final int BUCKET_COUNT = 64;
+
+        private static long getUpperBound(int bucket) {
+            if (bucket == 0) {
+                return 0;
+            }
+            return bucket == 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final String name;
+
+        private Timer(String name) {
+            this.name = name;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private long getPercentile(long[] counts, long calls, double fraction, long maxNanos) {
+            long rank = (long) Math.ceil(calls * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(getUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * Records a single call.
+         *
+         * @param nanos
+         *            Duration of the call.
+         */
+        void record(long nanos) {
+            long duration = Math.max(0, nanos);
+            buckets[64 - Long.numberOfLeadingZeros(duration)].increment();
+            max.accumulate(duration);
+        }
+
+        private TimingImpl snapshot() {
+            long[] counts = new long[BUCKET_COUNT];
+            long calls = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                calls += counts[i];
+            }
+            long maxNanos = max.get();
+            if (calls == 0) {
+                return new TimingImpl(name, 0, 0, 0, 0);
+            }
+            return new TimingImpl(name, calls, getPercentile(counts, calls, 0.5, maxNanos),
+                    getPercentile(counts, calls, 0.99, maxNanos), maxNanos);
+        }
+    }
+
+    private static final class TimingImpl implements Timing {
+        private final long calls;
+        private final long maxNanos;
+        private final long medianNanos;
+        private final String name;
+        private final long ninetyNinthPercentileNanos;
+
+        private TimingImpl(String name, long calls, long medianNanos, long ninetyNinthPercentileNanos,
+                long maxNanos) {
+            this.name = name;
+            this.calls = calls;
+            this.medianNanos = medianNanos;
+            this.ninetyNinthPercentileNanos = ninetyNinthPercentileNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        @Override
+        public long getCalls() {
+            return calls;
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getNinetyNinthPercentileNanos() {
+            return ninetyNinthPercentileNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Timing [name=" + name + ", calls=" + calls + ", medianNanos=" + medianNanos
+                    + ", ninetyNinthPercentileNanos=" + ninetyNinthPercentileNanos + ", maxNanos=" + maxNanos + "]";
+        }
+    }
+
+    private final BlockLockerPluginImpl plugin;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    PerformanceStatisticsImpl(BlockLockerPluginImpl plugin) {
+        this.plugin = Preconditions.checkNotNull(plugin);
+    }
+
+    @Override
+    public double getProtectionCacheHitRatio() {
+        return plugin.getHopperCache().getStats().hitRate();
+    }
+
+    @Override
+    public double getSignCacheHitRatio() {
+        return plugin.getSignCache().getStats().hitRate();
+    }
+
+    /**
+     * Gets the timer with the given name, creating it if necessary.
+     *
+     * @param name
+     *            Name of the timer.
+     * @return The timer.
+     */
+    Timer getTimer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    @Override
+    public Collection<Timing> getTimings() {
+        List<Timing> timings = new ArrayList<>();
+        for (Timer timer : timers.values()) {
+            TimingImpl timing = timer.snapshot();
+            if (timing.getCalls() > 0) {
+                timings.add(timing);
+            }
+        }
+        timings.sort(Comparator.comparing(Timing::getName));
+        return timings;
+    }
+}
@@ -3,8 +3,13 @@ package nl.rutgerkok.blocklocker.impl;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.bukkit.Material;
 import org.bukkit.Tag;
@@ -35,17 +40,60 @@ import nl.rutgerkok.blocklocker.protection.Protection;
  * blocks and sign blocks.
  */
 class ProtectionFinderImpl implements ProtectionFinder {
+
+    /**
+     * Remembers intermediate results while checking many blocks at once, as
+     * neighbouring blocks often share signs, supporting blocks and containers.
+     * Only checks whether there is a protection, the protection itself is
+     * never created.
+     */
+    private final class BatchSearch {
+        private final Map<Block, Boolean> signsAttached = new HashMap<>();
+        private final Map<Block, Boolean> protectionBlocks = new HashMap<>();
+
+        private boolean hasAttachedSigns(Collection<Block> blocks) {
+            for (Block block : blocks) {
+                Boolean hasSigns = signsAttached.get(block);
+                if (hasSigns == null) {
+                    hasSigns = blockFinder.hasAttachedSign(block);
+                    signsAttached.put(block, hasSigns);
+                }
+                if (hasSigns) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isProtected(Block block) {
+            return ProtectionFinderImpl.this.isProtected(block, this::isProtectionBlockProtected);
+        }
+
+        private boolean isProtectionBlockProtected(Block protectionBlock) {
+            Boolean known = protectionBlocks.get(protectionBlock);
+            if (known != null) {
+                return known;
+            }
+
+            boolean found = hasAttachedSigns(findBlocksForSigns(protectionBlock));
+            protectionBlocks.put(protectionBlock, found);
+            return found;
+        }
+    }
+
     private final BlockFinder blockFinder;
+    private final DoorCache doorCache;
     private final ChestSettings settings;
 
-    ProtectionFinderImpl(BlockFinder lookup, ChestSettings settings) {
+    ProtectionFinderImpl(BlockFinder lookup, ChestSettings settings, DoorCache doorCache) {
         blockFinder = lookup;
         this.settings = settings;
+        this.doorCache = doorCache;
     }
 
     @Override
     public Optional<Protection> findExistingProtectionForNewSign(Block signBlock) {
-        BlockState blockState = signBlock.getState();
+        BlockState blockState = signBlock.getState(false);
         if (!(blockState instanceof Sign)) {
             return Optional.empty();
         }
@@ -123,6 +171,18 @@ class ProtectionFinderImpl implements ProtectionFinder {
         return findProtectionForBlock(block, searchMode);
     }
 
+    @Override
+    public Set<Block> findProtections(Collection<Block> blocks) {
+        BatchSearch search = new BatchSearch();
+        Set<Block> protectedBlocks = new HashSet<>();
+        for (Block block : blocks) {
+            if (search.isProtected(block)) {
+                protectedBlocks.add(block);
+            }
+        }
+        return protectedBlocks;
+    }
+
     /**
      * Finds a protection for a protection/supporting block.
      *
@@ -186,7 +246,7 @@ class ProtectionFinderImpl implements ProtectionFinder {
                 return Optional.of(ContainerProtectionImpl.fromBlocksWithSigns(
                         signs, blocks, blockFinder));
             case DOOR:
-                CompleteDoor door = new CompleteDoor(protectionBlock);
+                CompleteDoor door = doorCache.get(protectionBlock);
                 Collection<ProtectionSign> doorSigns = blockFinder.findAttachedSigns(door.getBlocksForSigns());
                 if (doorSigns.isEmpty()) {
                     return Optional.empty();
@@ -232,7 +292,7 @@ class ProtectionFinderImpl implements ProtectionFinder {
                 return Optional.of(ContainerProtectionImpl.fromBlocksWithSign(
                         sign, blocks, blockFinder));
             case DOOR:
-                CompleteDoor door = new CompleteDoor(protectionBlock);
+                CompleteDoor door = doorCache.get(protectionBlock);
                 return Optional.of(DoorProtectionImpl.fromDoorWithSign(sign, blockFinder, door));
             case ATTACHABLE:
                 return Optional.of(AttachedProtectionImpl.fromBlockWithSign(sign, blockFinder, protectionBlock));
@@ -246,9 +306,67 @@ class ProtectionFinderImpl implements ProtectionFinder {
         return this.findProtectableForNonSignBlock(block).isPresent();
     }
 
+    @Override
+    public boolean isProtected(Block block) {
+        Preconditions.checkNotNull(block);
+        return isProtected(block,
+                protectionBlock -> blockFinder.hasAttachedSign(findBlocksForSigns(protectionBlock)));
+    }
+
+    /**
+     * Same as findProtection, but stops at the first sign and never creates
+     * the protection.
+     *
+     * @param block
+     *            The block to check.
+     * @param protectionBlockTest
+     *            Checks whether a protection block has a sign attached,
+     *            without looking at supporting blocks.
+     * @return True if the block is protected, false otherwise.
+     */
+    private boolean isProtected(Block block, Predicate<Block> protectionBlockTest) {
+        Material blockMaterial = block.getType();
+        if (Tag.WALL_SIGNS.isTagged(blockMaterial) || Tag.STANDING_SIGNS.isTagged(blockMaterial)) {
+            return blockFinder.getSignParser().parseSign(block).isPresent()
+                    && findProtectableForSign(block).isPresent();
+        }
+
+        if (protectionBlockTest.test(block)) {
+            return true;
+        }
+        Optional<Block> protectionBlock = findProtectableForSupportingBlock(block);
+        return protectionBlock.isPresent() && protectionBlockTest.test(protectionBlock.get());
+    }
+
+    /**
+     * Gets the blocks that a sign protecting the given block can be attached
+     * to.
+     *
+     * @param protectionBlock
+     *            The protection block.
+     * @return The blocks, or an empty list if the block cannot be protected.
+     */
+    private Collection<Block> findBlocksForSigns(Block protectionBlock) {
+        Optional<ProtectionType> protectionType = settings.getProtectionType(protectionBlock);
+        if (!protectionType.isPresent()) {
+            return Collections.emptyList();
+        }
+
+        switch (protectionType.get()) {
+            case CONTAINER:
+                return blockFinder.findContainerNeighbors(protectionBlock);
+            case DOOR:
+                return doorCache.get(protectionBlock).getBlocksForSigns();
+            case ATTACHABLE:
+                return Arrays.asList(protectionBlock, blockFinder.findSupportingBlock(protectionBlock));
+            default:
+                throw new UnsupportedOperationException("Don't know how to handle protection type " + protectionType.get());
+        }
+    }
+
     @Override
     public boolean isSignNearbyProtectable(Block signBlock) {
-        BlockState blockState = signBlock.getState();
+        BlockState blockState = signBlock.getState(false);
         if (blockState instanceof Sign) {
             return findProtectableForSign(signBlock).isPresent();
         }
@@ -60,6 +60,16 @@ final class SchedulerSupport {
         }
     }
 
+    void runAsync(Runnable runnable) {
+        if (folia) {
+            plugin.getServer().getAsyncScheduler().runNow(plugin, task -> {
+                runnable.run();
+            });
+        } else {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
+        }
+    }
+
     void runTimerAsync(Consumer<BukkitTask> task, long checkInterval) {
         if (folia) {
             plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, foliaTask -> {
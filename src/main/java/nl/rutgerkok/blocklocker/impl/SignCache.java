@@ -0,0 +1,128 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+import org.bukkit.block.sign.Side;
+import org.jspecify.annotations.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import nl.rutgerkok.blocklocker.ProtectionSign;
+
+/**
+ * Remembers parsed signs, so that the same sign doesn't need to be read again
+ * for every protection lookup. Signs that are not protection signs are cached
+ * too.
+ *
+ * <p>
+ * Entries are invalidated when a sign is changed, placed or broken by a
+ * player, burned or blown up. Signs can also be changed without any event, for
+ * example by other plugins, so on every hit the type and the header line of
+ * the sign are compared with the cached sign. Reading a single line is much
+ * cheaper than parsing the sign again. Changes to the other lines or to the
+ * hidden data of a sign that leave the header alone can go unnoticed until the
+ * entry expires, which happens after a minute.
+ */
+public final class SignCache {
+
+    private record Entry(Material material, @Nullable String header, Optional<ProtectionSign> sign) {
+        private boolean matches(Material material, @Nullable String header) {
+            return this.material == material && Objects.equals(this.header, header);
+        }
+    }
+
+    private record Position(UUID world, long position) {
+        private Position(Block block) {
+            this(block.getWorld().getUID(), PackedPosition.pack(block));
+        }
+    }
+
+    private static final long EXPIRE_TIME_SECONDS = 60;
+    private static final long MAX_SIZE = 10000;
+
+    /**
+     * Reads the first line on the front of the sign, which holds the header of
+     * protection signs.
+     *
+     * @param block
+     *            The block.
+     * @return The line, or null if the block is not a sign.
+     */
+    private static @Nullable String readHeader(Block block) {
+        // Nothing is modified, so the sign doesn't need to be copied
+        BlockState state = block.getState(false);
+        if (!(state instanceof Sign sign)) {
+            return null;
+        }
+        return sign.getSide(Side.FRONT).getLine(0);
+    }
+
+    private final Cache<Position, Entry> cache;
+
+    SignCache() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the parsed sign from the cache, or parses it if it isn't cached.
+     *
+     * @param block
+     *            The sign block.
+     * @param parser
+     *            Used to parse the sign if necessary.
+     * @return The parsed sign, or empty if it is not a protection sign.
+     */
+    Optional<ProtectionSign> get(Block block, Function<Block, Optional<ProtectionSign>> parser) {
+        Position position = new Position(block);
+        Material material = block.getType();
+        String header = readHeader(block);
+        Entry entry = cache.getIfPresent(position);
+        if (entry == null || !entry.matches(material, header)) {
+            entry = new Entry(material, header, parser.apply(block));
+            cache.put(position, entry);
+        }
+        return entry.sign;
+    }
+
+    /**
+     * Gets the hit and miss counts of this cache.
+     *
+     * @return The statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Forgets the parsed sign at the given position.
+     *
+     * @param block
+     *            The position of the sign.
+     */
+    public void invalidate(Block block) {
+        cache.invalidate(new Position(block));
+    }
+
+    /**
+     * Gets the approximate number of cached signs.
+     *
+     * @return The number of signs.
+     */
+    public long size() {
+        return cache.size();
+    }
+}
@@ -3,6 +3,7 @@ package nl.rutgerkok.blocklocker.impl;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.logging.Logger;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -18,6 +19,7 @@ import org.bukkit.persistence.PersistentDataType;
 
 import nl.rutgerkok.blocklocker.ChestSettings;
 import nl.rutgerkok.blocklocker.ProtectionSign;
+import nl.rutgerkok.blocklocker.SecretSignEntry;
 import nl.rutgerkok.blocklocker.SignParser;
 import nl.rutgerkok.blocklocker.SignType;
 import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
@@ -31,17 +33,38 @@ import nl.rutgerkok.blocklocker.profile.Profile;
 class SignParserImpl implements SignParser {
 
     private static final NamespacedKey HEADER_KEY = NbtSecretSignEntry.key("header");
-    private static final NamespacedKey[] PROFILE_KEYS = { NbtSecretSignEntry.key("profile_1"),
+    private static final int MAX_PROFILES = 6;
+    private static final NamespacedKey PROFILES_KEY = NbtSecretSignEntry.key("profiles");
+    /**
+     * Keys of the old format, with a separate tag for each profile. Still read,
+     * and converted to the format of {@link CompactSecretSignEntry} when the
+     * sign is saved for another reason.
+     */
+    private static final NamespacedKey[] LEGACY_PROFILE_KEYS = { NbtSecretSignEntry.key("profile_1"),
             NbtSecretSignEntry.key("profile_2"), NbtSecretSignEntry.key("profile_3"),
             NbtSecretSignEntry.key("profile_4"), NbtSecretSignEntry.key("profile_5"),
             NbtSecretSignEntry.key("profile_6") };
 
     private final ChestSettings chestSettings;
+    private final CaseInsensitiveLookup<SignType> headers;
+    private final Logger logger;
     private final ProfileFactoryImpl profileFactory;
+    private final SignCache signCache;
 
-    SignParserImpl(ChestSettings chestSettings, ProfileFactoryImpl profileFactory) {
+    SignParserImpl(ChestSettings chestSettings, ProfileFactoryImpl profileFactory, SignCache signCache,
+            Logger logger) {
         this.profileFactory = profileFactory;
+        this.logger = logger;
         this.chestSettings = chestSettings;
+        this.signCache = signCache;
+
+        CaseInsensitiveLookup.Builder<SignType> headers = CaseInsensitiveLookup.builder();
+        for (SignType type : SignType.values()) {
+            for (String header : chestSettings.getSimpleLocalizedHeaders(type)) {
+                headers.add(header, type);
+            }
+        }
+        this.headers = headers.build();
     }
 
     @Override
@@ -67,13 +90,20 @@ class SignParserImpl implements SignParser {
     }
 
     private SignType getSignTypeOrNull(String header) {
-        final String trimmed = ChatColor.stripColor(header).trim();
-        for (SignType type : SignType.values()) {
-            if (chestSettings.getSimpleLocalizedHeaders(type).stream().anyMatch(localizedHeader -> trimmed.equalsIgnoreCase(localizedHeader))) {
-                return type;
-            }
+        if (header.indexOf(ChatColor.COLOR_CHAR) != -1) {
+            header = ChatColor.stripColor(header);
+        }
+
+        // Trim without creating a new string
+        int start = 0;
+        int end = header.length();
+        while (start < end && header.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && header.charAt(end - 1) <= ' ') {
+            end--;
         }
-        return null;
+        return headers.get(header, start, end);
     }
 
     @Override
@@ -81,15 +111,18 @@ class SignParserImpl implements SignParser {
         return getSignType(sign, Side.FRONT).isPresent();
     }
 
-    private Optional<ProtectionSign> parseAdvancedSign(Sign sign) {
-     // Get sign type
-        PersistentDataContainer data = sign.getPersistentDataContainer();
-        if (!data.has(HEADER_KEY, PersistentDataType.STRING)) {
+    private Optional<ProtectionSign> parseAdvancedSign(Sign sign, PersistentDataContainer data,
+            String signTypeString) {
+        // Get sign type
+        SignType type;
+        try {
+            type = SignType.valueOf(signTypeString);
+        } catch (IllegalArgumentException e) {
             return Optional.empty();
         }
 
         // Check whether back side is in use
-        boolean useBackside = getSignTypeOrNull(sign.getSide(Side.BACK).getLines()[0]) != null;
+        boolean useBackside = getSignTypeOrNull(sign.getSide(Side.BACK).getLine(0)) != null;
 
         // Collected displayed names of front (and back, if in use)
         String[] displayedNames = new String[useBackside ? 6 : 3];
@@ -98,15 +131,6 @@ class SignParserImpl implements SignParser {
             System.arraycopy(sign.getSide(Side.BACK).getLines(), 1, displayedNames, 3, 3);
         }
 
-
-        String signTypeString = data.get(HEADER_KEY, PersistentDataType.STRING);
-        SignType type;
-        try {
-            type = SignType.valueOf(signTypeString);
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
-
         // Check header
         String header = sign.getSide(Side.FRONT).getLine(0);
         boolean headerMismatch = !chestSettings.getFancyLocalizedHeader(type, header).equals(header);
@@ -117,12 +141,34 @@ class SignParserImpl implements SignParser {
             }
         }
 
+        // Get stored profiles
+        boolean signHadDataMismatch = false; // Set to true when the display text doesn't match the stored data
+        boolean keepStoredData = false; // Set to true when the stored data must not be overwritten
+        List<? extends SecretSignEntry> entries;
+        byte[] compactData = data.get(PROFILES_KEY, PersistentDataType.BYTE_ARRAY);
+        if (compactData == null) {
+            // Old format, which is still valid. Rewriting all old signs just
+            // to convert them would write a lot of chunks at once
+            entries = readLegacyEntries(data);
+        } else {
+            entries = CompactSecretSignEntry.decode(compactData).orElse(null);
+            if (entries == null) {
+                // Corrupted, or written by a newer version of the plugin. Use
+                // the text on the sign, but don't overwrite the data, as that
+                // would lose the unique ids of the players
+                Location location = sign.getLocation();
+                logger.warning("Cannot read the profiles stored in the sign at " + location.getWorld().getName()
+                        + " " + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ()
+                        + "; leaving them untouched");
+                entries = readLegacyEntries(data);
+                keepStoredData = true;
+            }
+        }
+
         // Get profiles
         List<Profile> profiles = new ArrayList<>();
-        int i = 0;
-        boolean signHadDataMismatch = false; // Set to true when the display text doesn't match the stored data
-        for (NamespacedKey profileKey : PROFILE_KEYS) {
-            NbtSecretSignEntry entry = data.get(profileKey, NbtSecretSignEntry.TAG_TYPE);
+        for (int i = 0; i < MAX_PROFILES; i++) {
+            SecretSignEntry entry = i < entries.size() ? entries.get(i) : null;
             if (i >= 3 && !useBackside) {
                 if (entry != null) {
                     // Found more data, but backside of sign is not in use
@@ -142,28 +188,54 @@ class SignParserImpl implements SignParser {
                 profiles.add(newProfile);
                 signHadDataMismatch = true;
             }
-
-            i++;
         }
 
-        return Optional
-                .of(new ProtectionSignImpl(sign.getLocation(), type, profiles, signHadDataMismatch || headerMismatch));
+        boolean requiresResave = !keepStoredData && (signHadDataMismatch || headerMismatch);
+        return Optional.of(new ProtectionSignImpl(sign.getLocation(), type, profiles, requiresResave));
     }
 
     @Override
     public Optional<ProtectionSign> parseSign(Block sign) {
-        Sign signState = (Sign) sign.getState();
+        return signCache.get(sign, this::readSign);
+    }
+
+    /**
+     * Reads the sign from the world, bypassing the cache.
+     *
+     * @param sign
+     *            The sign block.
+     * @return The parsed sign, if it is a protection sign.
+     */
+    Optional<ProtectionSign> readSign(Block sign) {
+        // Nothing is modified, so the sign doesn't need to be copied
+        Sign signState = (Sign) sign.getState(false);
 
         // Try modern method
-        Optional<ProtectionSign> parsedSign = parseAdvancedSign(signState);
-        if (parsedSign.isPresent()) {
-            return parsedSign;
+        PersistentDataContainer data = signState.getPersistentDataContainer();
+        String signTypeString = data.get(HEADER_KEY, PersistentDataType.STRING);
+        if (signTypeString != null) {
+            Optional<ProtectionSign> parsedSign = parseAdvancedSign(signState, data, signTypeString);
+            if (parsedSign.isPresent()) {
+                return parsedSign;
+            }
         }
 
-        // Try plain sign, written by the user
-        String[] frontLines = signState.getSide(Side.FRONT).getLines();
+        // Try plain sign, written by the user. Check the header first, so that
+        // the other lines of decorative signs are never read
+        SignSide frontSide = signState.getSide(Side.FRONT);
+        if (getSignTypeOrNull(frontSide.getLine(0)) == null) {
+            return Optional.empty();
+        }
         String[] backLines = signState.getSide(Side.BACK).getLines();
-        return parseSimpleSign(sign.getLocation(), frontLines, backLines);
+        return parseSimpleSign(sign.getLocation(), frontSide.getLines(), backLines);
+    }
+
+    private List<SecretSignEntry> readLegacyEntries(PersistentDataContainer data) {
+        List<SecretSignEntry> entries = new ArrayList<>(LEGACY_PROFILE_KEYS.length);
+        for (NamespacedKey profileKey : LEGACY_PROFILE_KEYS) {
+            entries.add(data.get(profileKey, NbtSecretSignEntry.TAG_TYPE));
+        }
+        return entries;
     }
 
     /**
@@ -226,6 +298,7 @@ class SignParserImpl implements SignParser {
 
         PersistentDataContainer data = signState.getPersistentDataContainer();
         data.set(HEADER_KEY, PersistentDataType.STRING, sign.getType().toString());
+        List<CompactSecretSignEntry> entries = new ArrayList<>(profiles.size());
         int i = 0;
         for (Profile profile : profiles) {
             if (i < 3) {
@@ -233,15 +306,19 @@ class SignParserImpl implements SignParser {
             } else {
                 backSide.setLine(i - 2, profile.getDisplayName());
             }
-            NbtSecretSignEntry signEntry = new NbtSecretSignEntry(
-                    data.getAdapterContext().newPersistentDataContainer());
+            CompactSecretSignEntry signEntry = new CompactSecretSignEntry();
             profile.getSaveObject(signEntry);
-            data.set(PROFILE_KEYS[i], NbtSecretSignEntry.TAG_TYPE, signEntry);
+            entries.add(signEntry);
             i++;
         }
+        data.set(PROFILES_KEY, PersistentDataType.BYTE_ARRAY, CompactSecretSignEntry.encode(entries));
+        for (NamespacedKey legacyKey : LEGACY_PROFILE_KEYS) {
+            data.remove(legacyKey);
+        }
 
         // Save the text and secret data
         signState.update();
+        signCache.invalidate(block);
     }
 
 }
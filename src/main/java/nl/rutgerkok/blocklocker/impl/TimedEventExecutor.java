@@ -0,0 +1,106 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import nl.rutgerkok.blocklocker.impl.PerformanceStatisticsImpl.Timer;
+
+/**
+ * Calls an event handler method, and records how long that took.
+ *
+ */
+final class TimedEventExecutor implements EventExecutor {
+
+    /**
+     * Registers all event handlers of the listener, in the same way as
+     * {@link PluginManager#registerEvents(Listener, Plugin)}, but with timings.
+     *
+     * @param plugins
+     *            The plugin manager.
+     * @param listener
+     *            The listener.
+     * @param plugin
+     *            The plugin that owns the listener.
+     * @param statistics
+     *            The statistics to record the timings in.
+     */
+    static void registerEvents(PluginManager plugins, Listener listener, Plugin plugin,
+            PerformanceStatisticsImpl statistics) {
+        String listenerName = listener.getClass().getSimpleName();
+        for (Method method : getHandlerCandidates(listener.getClass())) {
+            EventHandler eventHandler = method.getAnnotation(EventHandler.class);
+            if (eventHandler == null || method.isBridge() || method.isSynthetic()
+                    || method.getParameterCount() != 1
+                    || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            MethodHandle handle;
+            try {
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalStateException("Cannot access event handler " + method, e);
+            }
+            Timer timer = statistics.getTimer(listenerName + "." + method.getName());
+            plugins.registerEvent(eventClass, listener, eventHandler.priority(),
+                    new TimedEventExecutor(eventClass, handle, timer), plugin, eventHandler.ignoreCancelled());
+        }
+    }
+
+    /**
+     * Gets the methods that Bukkit would look at for event handlers: all
+     * public methods, including inherited ones, and all other methods of the
+     * class itself. Overridden methods are only included once.
+     *
+     * @param listenerClass
+     *            The class of the listener.
+     * @return The methods.
+     */
+    private static Set<Method> getHandlerCandidates(Class<?> listenerClass) {
+        Method[] publicMethods = listenerClass.getMethods();
+        Method[] declaredMethods = listenerClass.getDeclaredMethods();
+        Set<Method> methods = new HashSet<>(publicMethods.length + declaredMethods.length, 1.0f);
+        methods.addAll(Arrays.asList(publicMethods));
+        methods.addAll(Arrays.asList(declaredMethods));
+        return methods;
+    }
+
+    private final Class<? extends Event> eventClass;
+    private final MethodHandle handle;
+    private final Timer timer;
+
+    private TimedEventExecutor(Class<? extends Event> eventClass, MethodHandle handle, Timer timer) {
+        this.eventClass = eventClass;
+        this.handle = handle;
+        this.timer = timer;
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) throws EventException {
+        if (!eventClass.isInstance(event)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            handle.invoke(listener, event);
+        } catch (Throwable e) {
+            throw new EventException(e);
+        } finally {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+
+}
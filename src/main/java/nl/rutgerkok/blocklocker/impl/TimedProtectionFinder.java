@@ -0,0 +1,102 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.Sign;
+
+import com.google.common.base.Preconditions;
+
+import nl.rutgerkok.blocklocker.ProtectionFinder;
+import nl.rutgerkok.blocklocker.ProtectionSign;
+import nl.rutgerkok.blocklocker.SearchMode;
+import nl.rutgerkok.blocklocker.SignType;
+import nl.rutgerkok.blocklocker.impl.PerformanceStatisticsImpl.Timer;
+import nl.rutgerkok.blocklocker.profile.Profile;
+import nl.rutgerkok.blocklocker.protection.Protection;
+
+/**
+ * Records how long the protection lookups take, and passes them on to another
+ * finder.
+ *
+ */
+final class TimedProtectionFinder implements ProtectionFinder {
+
+    private final ProtectionFinder finder;
+    private final Timer findExistingProtectionForNewSignTimer;
+    private final Timer findProtectionTimer;
+    private final Timer findProtectionsTimer;
+    private final Timer isProtectedTimer;
+
+    TimedProtectionFinder(ProtectionFinder finder, PerformanceStatisticsImpl statistics) {
+        this.finder = Preconditions.checkNotNull(finder);
+        this.findExistingProtectionForNewSignTimer = statistics
+                .getTimer("ProtectionFinder.findExistingProtectionForNewSign");
+        this.findProtectionTimer = statistics.getTimer("ProtectionFinder.findProtection");
+        this.findProtectionsTimer = statistics.getTimer("ProtectionFinder.findProtections");
+        this.isProtectedTimer = statistics.getTimer("ProtectionFinder.isProtected");
+    }
+
+    @Override
+    public Optional<Protection> findExistingProtectionForNewSign(Block signBlock) {
+        long start = System.nanoTime();
+        try {
+            return finder.findExistingProtectionForNewSign(signBlock);
+        } finally {
+            findExistingProtectionForNewSignTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Protection> findProtection(Block block) {
+        return findProtection(block, SearchMode.ALL);
+    }
+
+    @Override
+    public Optional<Protection> findProtection(Block block, SearchMode searchMode) {
+        long start = System.nanoTime();
+        try {
+            return finder.findProtection(block, searchMode);
+        } finally {
+            findProtectionTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Set<Block> findProtections(Collection<Block> blocks) {
+        long start = System.nanoTime();
+        try {
+            return finder.findProtections(blocks);
+        } finally {
+            findProtectionsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isProtectable(Block block) {
+        return finder.isProtectable(block);
+    }
+
+    @Override
+    public boolean isProtected(Block block) {
+        long start = System.nanoTime();
+        try {
+            return finder.isProtected(block);
+        } finally {
+            isProtectedTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean isSignNearbyProtectable(Block signBlock) {
+        return finder.isSignNearbyProtectable(signBlock);
+    }
+
+    @Override
+    public ProtectionSign newProtectionSign(Sign sign, SignType signType, Profile onFirstLine) {
+        return finder.newProtectionSign(sign, signType, onFirstLine);
+    }
+
+}
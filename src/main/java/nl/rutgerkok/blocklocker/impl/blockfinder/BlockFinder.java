@@ -2,11 +2,13 @@ package nl.rutgerkok.blocklocker.impl.blockfinder;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.bukkit.Material;
 import org.bukkit.Tag;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
@@ -44,11 +46,14 @@ public abstract class BlockFinder {
      *            The parser of signs.
      * @param connectContainers
      *            Whether containers must be connected.
+     * @param groupCache
+     *            Cache of connected containers, only used if containers are
+     *            connected.
      * @return The block finder.
      */
-    public static BlockFinder create(SignParser parser, boolean connectContainers) {
+    public static BlockFinder create(SignParser parser, boolean connectContainers, ContainerGroupCache groupCache) {
         if (connectContainers) {
-            return new ConnectedContainersBlockFinder(parser);
+            return new ConnectedContainersBlockFinder(parser, groupCache);
         } else {
             return new SeparateContainersBlockFinder(parser);
         }
@@ -68,22 +73,34 @@ public abstract class BlockFinder {
      * @return The signs.
      */
     public Collection<ProtectionSign> findAttachedSigns(Block block) {
-        Collection<ProtectionSign> signs = new ArrayList<>();
+        // Only looks up the material of the surrounding blocks, Block objects
+        // are only created for signs
+        World world = block.getWorld();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        List<ProtectionSign> signs = null;
         for (BlockFace face : SIGN_ATTACHMENT_FACES) {
-            Block atPosition = block.getRelative(face);
-            Material material = atPosition.getType();
+            int signX = x + face.getModX();
+            int signY = y + face.getModY();
+            int signZ = z + face.getModZ();
+            Material material = world.getType(signX, signY, signZ);
             if (!Tag.WALL_SIGNS.isTagged(material) && !Tag.STANDING_SIGNS.isTagged(material)) {
                 continue;
             }
-            if (!isAttachedSign(atPosition, block)) {
+            Block atPosition = world.getBlockAt(signX, signY, signZ);
+            if (!isAttachedSign(atPosition, face)) {
                 continue;
             }
             Optional<ProtectionSign> parsedSign = parser.parseSign(atPosition);
             if (parsedSign.isPresent()) {
+                if (signs == null) {
+                    signs = new ArrayList<>(2);
+                }
                 signs.add(parsedSign.get());
             }
         }
-        return signs;
+        return signs == null ? Collections.emptyList() : signs;
     }
 
     /**
@@ -99,11 +116,65 @@ public abstract class BlockFinder {
             return findAttachedSigns(blocks.iterator().next());
         }
 
-        ImmutableSet.Builder<ProtectionSign> signs = ImmutableSet.builder();
+        ImmutableSet.Builder<ProtectionSign> signs = null;
         for (Block block : blocks) {
-            signs.addAll(findAttachedSigns(block));
+            Collection<ProtectionSign> attachedSigns = findAttachedSigns(block);
+            if (attachedSigns.isEmpty()) {
+                continue;
+            }
+            if (signs == null) {
+                signs = ImmutableSet.builder();
+            }
+            signs.addAll(attachedSigns);
+        }
+        return signs == null ? Collections.emptySet() : signs.build();
+    }
+
+    /**
+     * Checks whether at least one valid protection sign is attached to the
+     * block. Faster than {@link #findAttachedSigns(Block)}, as the search
+     * stops at the first sign.
+     *
+     * @param block
+     *            The block to check attached signs on.
+     * @return True if a protection sign is attached, false otherwise.
+     */
+    public boolean hasAttachedSign(Block block) {
+        World world = block.getWorld();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        for (BlockFace face : SIGN_ATTACHMENT_FACES) {
+            int signX = x + face.getModX();
+            int signY = y + face.getModY();
+            int signZ = z + face.getModZ();
+            Material material = world.getType(signX, signY, signZ);
+            if (!Tag.WALL_SIGNS.isTagged(material) && !Tag.STANDING_SIGNS.isTagged(material)) {
+                continue;
+            }
+            Block atPosition = world.getBlockAt(signX, signY, signZ);
+            if (isAttachedSign(atPosition, face) && parser.parseSign(atPosition).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether at least one valid protection sign is attached to any of
+     * the blocks.
+     *
+     * @param blocks
+     *            The blocks to check attached signs on.
+     * @return True if a protection sign is attached, false otherwise.
+     */
+    public boolean hasAttachedSign(Collection<Block> blocks) {
+        for (Block block : blocks) {
+            if (hasAttachedSign(block)) {
+                return true;
+            }
         }
-        return signs.build();
+        return false;
     }
 
     /**
@@ -166,14 +237,15 @@ public abstract class BlockFinder {
      *
      * @param signBlock
      *            The block that is a sign.
-     * @param attachedTo
-     *            The block the sign must be attached to. If this is not the
-     *            case, the method returns false.
+     * @param faceFromAttachedTo
+     *            The direction from the block the sign must be attached to,
+     *            to the sign. If the sign is not attached to that block, the
+     *            method returns false.
      * @return True if the direction and header of the sign are valid, false
      *         otherwise.
      */
-    private boolean isAttachedSign(Block signBlock, Block attachedTo) {
-        BlockFace requiredFace = signBlock.getFace(attachedTo);
+    private boolean isAttachedSign(Block signBlock, BlockFace faceFromAttachedTo) {
+        BlockFace requiredFace = faceFromAttachedTo.getOppositeFace();
         BlockData materialData = signBlock.getBlockData();
         BlockFace actualFace = BlockFace.DOWN;
         if (materialData instanceof WallSign) {
@@ -4,86 +4,129 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 
+import com.google.common.base.Preconditions;
+
 import nl.rutgerkok.blocklocker.SignParser;
 
 final class ConnectedContainersBlockFinder extends BlockFinder {
-    private static final int MAX_SEARCH_DISTANCE = 10;
+    static final int MAX_SEARCH_DISTANCE = 10;
+
+    private final ContainerGroupCache groupCache;
 
-    ConnectedContainersBlockFinder(SignParser parser) {
+    ConnectedContainersBlockFinder(SignParser parser, ContainerGroupCache groupCache) {
         super(parser);
+        this.groupCache = Preconditions.checkNotNull(groupCache);
     }
 
     @Override
     public List<Block> findContainerNeighbors(Block block) {
+        return groupCache.get(block, this::searchContainerNeighbors);
+    }
+
+    private List<Block> searchContainerNeighbors(Block block) {
+        // Works on coordinates, Block objects are only created for the
+        // containers that are found
+        World world = block.getWorld();
         Material containerMaterial = block.getType();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
         List<Block> blocks = new ArrayList<>();
         blocks.add(block);
 
         // Search above and below on the starting block
-        searchVertical(containerMaterial, block, blocks);
+        searchVertical(world, containerMaterial, x, y, z, blocks);
 
         // Just searches in the four cardinal faces, until it hits a block
         // of another type. Blocks above and below of the same block type are
         // also searched
         for (BlockFace face : CARDINAL_FACES) {
-            int distance = 0;
-            Block atPosition = block.getRelative(face);
-            while (distance < MAX_SEARCH_DISTANCE && atPosition.getType() == containerMaterial) {
-                blocks.add(atPosition);
-                searchVertical(containerMaterial, atPosition, blocks);
-
-                atPosition = atPosition.getRelative(face);
-                distance++;
-            }
+            searchHorizontal(world, containerMaterial, x, y, z, face, blocks);
         }
 
         BlockFace chestNeighborFace = this.getChestNeighborFaceOrNull(block);
         if (chestNeighborFace != null) {
             // Double chest, also perform search for other chest block
-            Block chestNeighbor = block.getRelative(chestNeighborFace);
+            int chestNeighborX = x + chestNeighborFace.getModX();
+            int chestNeighborZ = z + chestNeighborFace.getModZ();
             BlockFace[] searchDirections = { this.turn90Degrees(chestNeighborFace),
                     this.turn90Degrees(chestNeighborFace).getOppositeFace() };
             for (BlockFace face : searchDirections) {
-                int distance = 0;
-                Block atPosition = chestNeighbor.getRelative(face);
-                while (distance < MAX_SEARCH_DISTANCE && atPosition.getType() == containerMaterial) {
-                    blocks.add(atPosition);
-                    searchVertical(containerMaterial, atPosition, blocks);
-
-                    atPosition = atPosition.getRelative(face);
-                    distance++;
-                }
+                searchHorizontal(world, containerMaterial, chestNeighborX, y, chestNeighborZ, face, blocks);
             }
         }
 
         return blocks;
     }
 
+    /**
+     * Searches for blocks of the same type in the given direction, and above
+     * and below those blocks.
+     *
+     * @param world
+     *            The world.
+     * @param containerMaterial
+     *            The material of the container.
+     * @param startX
+     *            X position of the starting block.
+     * @param y
+     *            Y position of the starting block.
+     * @param startZ
+     *            Z position of the starting block.
+     * @param face
+     *            The direction to search in, must be horizontal.
+     * @param blocks
+     *            All connected blocks (so not the starting block itself) of the
+     *            same type will be added to this list.
+     */
+    private void searchHorizontal(World world, Material containerMaterial, int startX, int y, int startZ,
+            BlockFace face, List<Block> blocks) {
+        int x = startX + face.getModX();
+        int z = startZ + face.getModZ();
+        for (int distance = 0; distance < MAX_SEARCH_DISTANCE; distance++) {
+            if (world.getType(x, y, z) != containerMaterial) {
+                return;
+            }
+            blocks.add(world.getBlockAt(x, y, z));
+            searchVertical(world, containerMaterial, x, y, z, blocks);
+
+            x += face.getModX();
+            z += face.getModZ();
+        }
+    }
+
     /**
      * Searches for blocks of the same type above and below the starting block.
      *
+     * @param world
+     *            The world.
      * @param containerMaterial
-     *            The material {@link Block#getType() startingBlock.getType()}
-     *            returns.
-     * @param startingBlock
-     *            The starting block.
+     *            The material of the container.
+     * @param x
+     *            X position of the starting block.
+     * @param startY
+     *            Y position of the starting block.
+     * @param z
+     *            Z position of the starting block.
      * @param blocks
      *            All connected blocks above and below (so not the starting block
      *            itself) of the same type will be added to this list.
      */
-    private void searchVertical(Material containerMaterial, Block startingBlock, List<Block> blocks) {
+    private void searchVertical(World world, Material containerMaterial, int x, int startY, int z,
+            List<Block> blocks) {
         for (BlockFace face : VERTICAL_FACES) {
-            int distance = 0;
-            Block atPosition = startingBlock.getRelative(face);
-            while (distance < MAX_SEARCH_DISTANCE && atPosition.getType() == containerMaterial) {
-                blocks.add(atPosition);
-
-                atPosition = atPosition.getRelative(face);
-                distance++;
+            int y = startY + face.getModY();
+            for (int distance = 0; distance < MAX_SEARCH_DISTANCE; distance++) {
+                if (world.getType(x, y, z) != containerMaterial) {
+                    break;
+                }
+                blocks.add(world.getBlockAt(x, y, z));
+                y += face.getModY();
             }
         }
     }
-}
+}
\ No newline at end of file
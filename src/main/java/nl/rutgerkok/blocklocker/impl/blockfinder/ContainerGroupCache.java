@@ -0,0 +1,220 @@
+package nl.rutgerkok.blocklocker.impl.blockfinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+
+import nl.rutgerkok.blocklocker.impl.PackedPosition;
+
+/**
+ * Remembers which containers are connected to a container, so that large
+ * groups of connected containers don't need to be searched again for every
+ * hopper transfer. Only used if containers are connected.
+ *
+ * <p>
+ * The search for connected containers depends on the block it starts from, so
+ * the group of every starting block is stored separately. Entries must be
+ * invalidated whenever a protectable block is placed or broken near the
+ * group. Blocks can also be changed without any event, so on every hit all
+ * blocks of the group are checked to still be of the same type. Containers
+ * that are added next to the group without an event are not noticed that
+ * way, as that would require searching again. For those, entries expire
+ * after ten seconds, like the entries of the protection cache.
+ *
+ * <p>
+ * Entries are never searched for when they are invalidated. Instead, each
+ * world remembers when chunks were last invalidated, and groups that were
+ * stored before that time are ignored. Chunks can share such a time, which
+ * just means that some groups are forgotten too early.
+ *
+ * <p>
+ * The Block objects themselves are stored, so that a hit doesn't need to
+ * create them again. The signs on the group are not stored: signs can be
+ * placed without any event, and a stale list of signs would make a protected
+ * container look unprotected.
+ */
+public final class ContainerGroupCache {
+
+    /**
+     * A group of containers. All blocks are of the given material.
+     */
+    private record Group(Material material, List<Block> blocks, long storeTime) {
+        private boolean matchesWorld() {
+            for (Block block : blocks) {
+                if (block.getType() != material) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The groups of a single world.
+     */
+    private final class WorldGroups {
+        private final Cache<Long, Group> cache;
+        /**
+         * Times in {@link System#nanoTime()} at which chunks were last
+         * invalidated, indexed by {@link ContainerGroupCache#chunkSlot(long)}.
+         */
+        private final AtomicLongArray chunkInvalidateTimes = new AtomicLongArray(CHUNK_SLOTS);
+
+        private WorldGroups() {
+            cache = CacheBuilder.newBuilder()
+                    .maximumWeight(MAX_WEIGHT)
+                    .weigher((Long position, Group group) -> group.blocks.size())
+                    .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
+                    .removalListener(notification -> {
+                        if (notification.getCause() == RemovalCause.SIZE) {
+                            evictions.increment();
+                        }
+                    })
+                    .build();
+
+            // Groups stored after this moment are valid
+            long createTime = System.nanoTime();
+            for (int i = 0; i < CHUNK_SLOTS; i++) {
+                chunkInvalidateTimes.set(i, createTime - 1);
+            }
+        }
+
+        private boolean isValid(long position, Group group) {
+            long invalidateTime = chunkInvalidateTimes.get(chunkSlot(chunkOf(position)));
+            return group.storeTime - invalidateTime > 0;
+        }
+    }
+
+    /**
+     * Number of invalidation times kept per world.
+     */
+    private static final int CHUNK_SLOTS = 1024;
+    private static final long EXPIRE_TIME_SECONDS = 10;
+    /**
+     * A placed or broken block can change the group of containers up to this
+     * many blocks away: the search distance, plus one for the other half of a
+     * double chest.
+     */
+    private static final int MAX_DISTANCE = ConnectedContainersBlockFinder.MAX_SEARCH_DISTANCE + 1;
+    /**
+     * Maximum number of blocks in all groups of a world combined.
+     */
+    private static final long MAX_WEIGHT = 500_000;
+
+    private static long chunkOf(long position) {
+        return PackedPosition.packChunk(PackedPosition.unpackX(position) >> 4, PackedPosition.unpackZ(position) >> 4);
+    }
+
+    private static int chunkSlot(long chunk) {
+        long hash = chunk * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (CHUNK_SLOTS - 1);
+    }
+
+    private final Map<UUID, WorldGroups> worlds = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Forgets all groups of the given world, for example because the world is
+     * unloaded.
+     *
+     * @param world
+     *            The world.
+     */
+    public void forgetWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Gets the connected containers from the cache, or searches for them if
+     * they aren't cached.
+     *
+     * @param block
+     *            The container to start from.
+     * @param finder
+     *            Used to search for connected containers if necessary.
+     * @return The connected containers, including the given container. The
+     *         list cannot be modified.
+     */
+    List<Block> get(Block block, Function<Block, List<Block>> finder) {
+        WorldGroups groups = worlds.computeIfAbsent(block.getWorld().getUID(), uuid -> new WorldGroups());
+        long position = PackedPosition.pack(block);
+        Material material = block.getType();
+        Group group = groups.cache.getIfPresent(position);
+        if (group == null || group.material != material || !groups.isValid(position, group)
+                || !group.matchesWorld()) {
+            // Stored with the time the search started, so that the group is
+            // ignored if the chunk is invalidated while searching
+            long now = System.nanoTime();
+            group = new Group(material, List.copyOf(finder.apply(block)), now);
+            groups.cache.put(position, group);
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return group.blocks;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts of this cache. Groups that were
+     * found but were no longer valid count as misses. Other values of the
+     * statistics are always zero.
+     *
+     * @return The statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, evictions.sum());
+    }
+
+    /**
+     * Forgets all groups that could be affected by a change of the given
+     * block. Call this method when a protectable block was placed or broken.
+     * All chunks within reach are forgotten, which is at most nine chunks.
+     *
+     * @param block
+     *            The block.
+     */
+    public void invalidateAround(Block block) {
+        WorldGroups groups = worlds.get(block.getWorld().getUID());
+        if (groups == null) {
+            return;
+        }
+        int x = block.getX();
+        int z = block.getZ();
+        long now = System.nanoTime();
+        for (int chunkX = (x - MAX_DISTANCE) >> 4; chunkX <= (x + MAX_DISTANCE) >> 4; chunkX++) {
+            for (int chunkZ = (z - MAX_DISTANCE) >> 4; chunkZ <= (z + MAX_DISTANCE) >> 4; chunkZ++) {
+                groups.chunkInvalidateTimes.set(chunkSlot(PackedPosition.packChunk(chunkX, chunkZ)), now);
+            }
+        }
+    }
+
+    /**
+     * Gets the approximate number of cached groups. Groups that were
+     * invalidated are counted until they are replaced or expire.
+     *
+     * @return The number of groups.
+     */
+    public long size() {
+        long size = 0;
+        for (WorldGroups groups : worlds.values()) {
+            size += groups.cache.size();
+        }
+        return size;
+    }
+}
@@ -19,6 +19,7 @@ import org.bukkit.entity.Ghast;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.TNTPrimed;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockBurnEvent;
 import org.bukkit.event.block.BlockExplodeEvent;
@@ -59,7 +60,9 @@ public class BlockDestroyListener extends EventListener {
     private void destroyOtherSigns(ProtectionSign protectionSign, Protection protection) {
         for (ProtectionSign foundSign : protection.getSigns()) {
             if (!foundSign.equals(protectionSign)) {
-                foundSign.getLocation().getBlock().breakNaturally();
+                Block signBlock = foundSign.getLocation().getBlock();
+                blockRemoved(signBlock);
+                signBlock.breakNaturally();
             }
         }
     }
@@ -92,6 +95,12 @@ public class BlockDestroyListener extends EventListener {
         }
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockBroken(BlockBreakEvent event) {
+        // Only now it is certain that the block will be gone
+        blockRemoved(event.getBlock());
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onBlockBurnEvent(BlockBurnEvent event) {
         if (plugin.getChestSettings().allowDestroyBy(AttackType.FIRE)) {
@@ -102,6 +111,18 @@ public class BlockDestroyListener extends EventListener {
         }
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockBurned(BlockBurnEvent event) {
+        blockRemoved(event.getBlock());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockExploded(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            blockRemoved(block);
+        }
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onBlockExplodeEvent(BlockExplodeEvent event) {
         // Generally caused by a Bed, but when the event is triggered the bed is no longer there so we can't check that
@@ -109,11 +130,13 @@ public class BlockDestroyListener extends EventListener {
         if (plugin.getChestSettings().allowDestroyBy(attackType)) {
             return;
         }
-        for (Iterator<Block> it = event.blockList().iterator(); it.hasNext();) {
-            Block block = it.next();
-            if (isProtected(block)) {
-                it.remove();
-            }
+        event.blockList().removeAll(plugin.getProtectionFinder().findProtections(event.blockList()));
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockPistonExtended(BlockPistonExtendEvent event) {
+        for (Block block : event.getBlocks()) {
+            blockMoved(block, event.getDirection());
         }
     }
 
@@ -127,6 +150,13 @@ public class BlockDestroyListener extends EventListener {
         }
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onBlockPistonRetracted(BlockPistonRetractEvent event) {
+        for (Block block : event.getBlocks()) {
+            blockMoved(block, event.getDirection());
+        }
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onBlockPistonRetract(BlockPistonRetractEvent event) {
         if (plugin.getChestSettings().allowDestroyBy(AttackType.PISTON)) {
@@ -153,6 +183,13 @@ public class BlockDestroyListener extends EventListener {
         }
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onEntityExploded(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            blockRemoved(block);
+        }
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onEntityExplodeEvent(EntityExplodeEvent event) {
         AttackType attackType = AttackType.UNKNOWN;
@@ -169,12 +206,7 @@ public class BlockDestroyListener extends EventListener {
         if (plugin.getChestSettings().allowDestroyBy(attackType)) {
             return;
         }
-        for (Iterator<Block> it = event.blockList().iterator(); it.hasNext();) {
-            Block block = it.next();
-            if (isProtected(block)) {
-                it.remove();
-            }
-        }
+        event.blockList().removeAll(plugin.getProtectionFinder().findProtections(event.blockList()));
     }
 
     @EventHandler
@@ -1,8 +1,10 @@
 package nl.rutgerkok.blocklocker.impl.event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -10,16 +12,21 @@ import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.command.TabExecutor;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 
-import nl.rutgerkok.blocklocker.BlockLockerPlugin;
+import nl.rutgerkok.blocklocker.PerformanceStatistics;
+import nl.rutgerkok.blocklocker.PerformanceStatistics.Timing;
 import nl.rutgerkok.blocklocker.Permissions;
 import nl.rutgerkok.blocklocker.Translator.Translation;
+import nl.rutgerkok.blocklocker.impl.BlockLockerPluginImpl;
 
 public final class BlockLockerCommand implements TabExecutor {
 
-    private final BlockLockerPlugin plugin;
+    private static final List<String> SUB_COMMANDS = Arrays.asList("cache", "reload", "stats");
 
-    public BlockLockerCommand(BlockLockerPlugin plugin) {
+    private final BlockLockerPluginImpl plugin;
+
+    public BlockLockerCommand(BlockLockerPluginImpl plugin) {
         this.plugin = Preconditions.checkNotNull(plugin);
     }
 
@@ -32,18 +39,75 @@ public final class BlockLockerCommand implements TabExecutor {
         if (args[0].equalsIgnoreCase("reload")) {
             return reloadCommand(sender);
         }
+        if (args[0].equalsIgnoreCase("cache")) {
+            return cacheCommand(sender);
+        }
+        if (args[0].equalsIgnoreCase("stats")) {
+            return statsCommand(sender);
+        }
         return false;
     }
 
+    private boolean cacheCommand(CommandSender sender) {
+        if (!sender.hasPermission(Permissions.CAN_RELOAD)) {
+            plugin.getTranslator().sendMessage(sender, Translation.COMMAND_NO_PERMISSION);
+            return true;
+        }
+
+        // Admin-only output, so not translated
+        sender.sendMessage(describeCache("Protection cache", plugin.getHopperCache().size(),
+                plugin.getHopperCache().getStats()));
+        sender.sendMessage(describeCache("Sign cache", plugin.getSignCache().size(),
+                plugin.getSignCache().getStats()));
+        sender.sendMessage(describeCache("Container group cache", plugin.getContainerGroupCache().size(),
+                plugin.getContainerGroupCache().getStats()));
+        sender.sendMessage(describeCache("Door cache", plugin.getDoorCache().size(),
+                plugin.getDoorCache().getStats()));
+        sender.sendMessage(describeCache("Group membership cache", plugin.getGroupMembershipCache().size(),
+                plugin.getGroupMembershipCache().getStats()));
+        return true;
+    }
+
+    private String describeCache(String name, long size, CacheStats stats) {
+        return String.format(Locale.ROOT, "%s: %d entries, %.1f%% hit ratio (%d hits, %d misses), %d evictions",
+                name, size, stats.hitRate() * 100, stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    private String describeTiming(Timing timing) {
+        return String.format(Locale.ROOT, "%s: %d calls, median %.1f µs, 99th percentile %.1f µs, max %.1f µs",
+                timing.getName(), timing.getCalls(), timing.getMedianNanos() / 1000.0,
+                timing.getNinetyNinthPercentileNanos() / 1000.0, timing.getMaxNanos() / 1000.0);
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        if (args.length == 2) {
-            return null;
-        }
-        if (args.length > 2) {
+        if (args.length != 1) {
             return Collections.emptyList();
         }
-        return Arrays.asList("2", "3", "4");
+        String start = args[0].toLowerCase(Locale.ROOT);
+        List<String> completions = new ArrayList<>();
+        for (String subCommand : SUB_COMMANDS) {
+            if (subCommand.startsWith(start)) {
+                completions.add(subCommand);
+            }
+        }
+        return completions;
+    }
+
+    private boolean statsCommand(CommandSender sender) {
+        if (!sender.hasPermission(Permissions.CAN_RELOAD)) {
+            plugin.getTranslator().sendMessage(sender, Translation.COMMAND_NO_PERMISSION);
+            return true;
+        }
+
+        // Admin-only output, so not translated
+        PerformanceStatistics statistics = plugin.getPerformanceStatistics();
+        for (Timing timing : statistics.getTimings()) {
+            sender.sendMessage(describeTiming(timing));
+        }
+        sender.sendMessage(String.format(Locale.ROOT, "Cache hit ratios: protection cache %.1f%%, sign cache %.1f%%",
+                statistics.getProtectionCacheHitRatio() * 100, statistics.getSignCacheHitRatio() * 100));
+        return true;
     }
 
     private boolean reloadCommand(CommandSender sender) {
@@ -61,6 +125,4 @@ public final class BlockLockerCommand implements TabExecutor {
         return true;
     }
 
-
-
 }
@@ -1,9 +1,9 @@
 package nl.rutgerkok.blocklocker.impl.event;
 
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Material;
 import org.bukkit.Tag;
@@ -27,7 +27,7 @@ import nl.rutgerkok.blocklocker.protection.Protection;
 
 public final class BlockPlaceListener extends EventListener {
 
-    private final Set<UUID> doNotSendChestHintPlayerIds = new HashSet<>();
+    private final Set<UUID> doNotSendChestHintPlayerIds = ConcurrentHashMap.newKeySet();
 
     public BlockPlaceListener(BlockLockerPluginImpl plugin) {
         super(plugin);
@@ -60,7 +60,8 @@ public final class BlockPlaceListener extends EventListener {
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     public void onBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
-        
+        blockPlaced(event.getBlockPlaced());
+
         Optional<Protection> interferingProtection = willInterfereWith(player, event.getBlockPlaced());
         if (interferingProtection.isPresent()) {
             // Not allowed to place a block here, would interfere with an existing
@@ -103,21 +104,18 @@ public final class BlockPlaceListener extends EventListener {
      */
     private void sendChestHint(Player player) {
         UUID playerId = player.getUniqueId();
-        synchronized (this.doNotSendChestHintPlayerIds) {
-            if (this.doNotSendChestHintPlayerIds.contains(playerId)) {
-                return;
-            }
-            plugin.getTranslator().sendMessage(player, Translation.PROTECTION_CHEST_HINT);
-
-            // Temporarily suppress chest hint (120 seconds)
-            this.doNotSendChestHintPlayerIds.add(playerId);
+        // Temporarily suppress chest hint (120 seconds)
+        // Concurrent set, as players in different regions are handled by
+        // different threads on Folia
+        if (!this.doNotSendChestHintPlayerIds.add(playerId)) {
+            return;
         }
+        plugin.getTranslator().sendMessage(player, Translation.PROTECTION_CHEST_HINT);
+
         plugin.runLaterGlobally(() -> {
             // Note: we only keep a reference to the player id, not the entire player
             // object, which might be replaced
-            synchronized (this.doNotSendChestHintPlayerIds) {
-                this.doNotSendChestHintPlayerIds.remove(playerId);
-            }
+            this.doNotSendChestHintPlayerIds.remove(playerId);
         }, 20 * 120);
     }
 
@@ -0,0 +1,30 @@
+package nl.rutgerkok.blocklocker.impl.event;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import nl.rutgerkok.blocklocker.impl.BlockLockerPluginImpl;
+
+/**
+ * Keeps the caches of the plugin in sync with the loaded chunks and worlds.
+ *
+ */
+public final class ChunkListener extends EventListener {
+
+    public ChunkListener(BlockLockerPluginImpl plugin) {
+        super(plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        plugin.getHopperCache().invalidateChunk(event.getChunk());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getContainerGroupCache().forgetWorld(event.getWorld());
+        plugin.getDoorCache().forgetWorld(event.getWorld());
+    }
+}
@@ -5,7 +5,10 @@ import java.util.Date;
 import java.util.Optional;
 
 import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.event.Listener;
 
 import nl.rutgerkok.blocklocker.ProtectionCache;
@@ -24,12 +27,66 @@ abstract class EventListener implements Listener {
     }
 
     boolean anyProtected(Collection<Block> blocks) {
-        for (Block block : blocks) {
-            if (isProtected(block)) {
-                return true;
-            }
+        return !plugin.getProtectionFinder().findProtections(blocks).isEmpty();
+    }
+
+    /**
+     * Keeps the caches of the plugin up to date after a block has been moved
+     * by a piston.
+     *
+     * @param block
+     *            The block, still at its old position.
+     * @param direction
+     *            The direction the block is moved in.
+     */
+    void blockMoved(Block block, BlockFace direction) {
+        blockRemoved(block);
+
+        // The block isn't at its new position yet, so check the old block
+        Block destination = block.getRelative(direction);
+        if (isSign(block.getType())) {
+            plugin.getHopperCache().invalidateAround(destination);
+        } else if (plugin.getChestSettings().canProtect(block)) {
+            plugin.getHopperCache().invalidateAround(destination);
+            plugin.getContainerGroupCache().invalidateAround(destination);
+            plugin.getDoorCache().invalidateAround(destination);
+        }
+    }
+
+    /**
+     * Keeps the caches of the plugin up to date after a block has been placed.
+     *
+     * @param block
+     *            The block that was placed.
+     */
+    void blockPlaced(Block block) {
+        if (isSign(block.getType())) {
+            plugin.getSignCache().invalidate(block);
+            plugin.getHopperCache().invalidateAround(block);
+        } else if (plugin.getChestSettings().canProtect(block)) {
+            plugin.getHopperCache().invalidateAround(block);
+            plugin.getContainerGroupCache().invalidateAround(block);
+            plugin.getDoorCache().invalidateAround(block);
+        }
+    }
+
+    /**
+     * Keeps the caches of the plugin up to date after a block has been
+     * removed. Call this method only when it is certain that the block is
+     * gone.
+     *
+     * @param block
+     *            The block, still in its old state.
+     */
+    void blockRemoved(Block block) {
+        if (isSign(block.getType())) {
+            plugin.getSignCache().invalidate(block);
+            plugin.getHopperCache().invalidateAround(block);
+        } else if (plugin.getChestSettings().canProtect(block)) {
+            plugin.getHopperCache().invalidateAround(block);
+            plugin.getContainerGroupCache().invalidateAround(block);
+            plugin.getDoorCache().invalidateAround(block);
         }
-        return false;
     }
 
     boolean isExpired(Protection protection) {
@@ -41,7 +98,11 @@ abstract class EventListener implements Listener {
     }
 
     boolean isProtected(Block block) {
-        return plugin.getProtectionFinder().findProtection(block).isPresent();
+        return plugin.getProtectionFinder().isProtected(block);
+    }
+
+    boolean isSign(Material material) {
+        return Tag.WALL_SIGNS.isTagged(material) || Tag.STANDING_SIGNS.isTagged(material);
     }
 
     boolean isRedstoneDenied(Block block) {
@@ -60,4 +121,17 @@ abstract class EventListener implements Listener {
             return !allowed;
         }
     }
+
+    /**
+     * Keeps the caches of the plugin up to date after the text of a sign has
+     * been changed. Call this method only when it is certain that the text
+     * will change.
+     *
+     * @param block
+     *            The sign block.
+     */
+    void signChanged(Block block) {
+        plugin.getSignCache().invalidate(block);
+        plugin.getHopperCache().invalidateAround(block);
+    }
 }
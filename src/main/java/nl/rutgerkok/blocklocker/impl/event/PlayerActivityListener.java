@@ -0,0 +1,42 @@
+package nl.rutgerkok.blocklocker.impl.event;
+
+import java.util.UUID;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import nl.rutgerkok.blocklocker.impl.BlockLockerPluginImpl;
+
+/**
+ * Keeps track of when players were last online, for expiring protections. Also
+ * forgets the cached groups of players when they join, leave or change worlds.
+ *
+ */
+public final class PlayerActivityListener extends EventListener {
+
+    public PlayerActivityListener(BlockLockerPluginImpl plugin) {
+        super(plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        plugin.getGroupMembershipCache().invalidatePlayer(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        plugin.getPlayerActivityCache().playerJoined(playerId);
+        plugin.getGroupMembershipCache().invalidatePlayer(playerId);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        plugin.getPlayerActivityCache().playerQuit(playerId);
+        plugin.getGroupMembershipCache().invalidatePlayer(playerId);
+    }
+}
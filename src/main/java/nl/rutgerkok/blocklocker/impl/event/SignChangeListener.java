@@ -10,6 +10,7 @@ import org.bukkit.block.Sign;
 import org.bukkit.block.sign.Side;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.SignChangeEvent;
 
 import nl.rutgerkok.blocklocker.Permissions;
@@ -168,6 +169,12 @@ public class SignChangeListener extends EventListener {
         }
     }
 
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onSignChanged(SignChangeEvent event) {
+        // Only now it is certain that the text will change
+        signChanged(event.getBlock());
+    }
+
     /**
      * Call this method for newly created protections. The next tick the
      * protection will be found and updated for uuids.
@@ -0,0 +1,120 @@
+package nl.rutgerkok.blocklocker.impl.group;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.entity.Player;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import nl.rutgerkok.blocklocker.group.GroupSystem;
+
+/**
+ * Remembers the answers of another group system for a few seconds. Group
+ * systems of other plugins can be slow, and signs of a group are checked for
+ * every click and every hopper transfer.
+ *
+ * <p>
+ * Group names are cached exactly as written, as some group systems are case
+ * sensitive. Other plugins don't tell us when groups change, so entries
+ * simply expire. The entries of a player are also removed when the player
+ * joins, leaves or changes worlds, as permissions often depend on that. To
+ * make that cheap, every player has a cache of their own.
+ */
+public final class CachingGroupSystem extends GroupSystem {
+
+    private record GroupKey(String groupName, boolean leader) {
+    }
+
+    private static final long EXPIRE_TIME_SECONDS = 5;
+    /**
+     * Maximum number of answers cached per player.
+     */
+    private static final long MAX_SIZE = 1000;
+
+    private final Map<UUID, Cache<GroupKey, Boolean>> caches = new ConcurrentHashMap<>();
+    private final GroupSystem groupSystem;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param groupSystem
+     *            The group system to ask if the answer isn't cached.
+     */
+    public CachingGroupSystem(GroupSystem groupSystem) {
+        this.groupSystem = Preconditions.checkNotNull(groupSystem, "groupSystem");
+    }
+
+    private Cache<GroupKey, Boolean> createCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(EXPIRE_TIME_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    private boolean get(Player player, String groupName, boolean leader) {
+        Cache<GroupKey, Boolean> cache = caches.computeIfAbsent(player.getUniqueId(), uuid -> createCache());
+        GroupKey key = new GroupKey(groupName, leader);
+        Boolean cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        boolean result = leader ? groupSystem.isGroupLeader(player, groupName)
+                : groupSystem.isInGroup(player, groupName);
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Gets the hit and miss counts of this cache. Other values of the
+     * statistics are always zero.
+     *
+     * @return The statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Forgets all groups of the given player.
+     *
+     * @param playerId
+     *            Unique id of the player.
+     */
+    public void invalidatePlayer(UUID playerId) {
+        caches.remove(playerId);
+    }
+
+    @Override
+    public boolean isGroupLeader(Player player, String groupName) {
+        return get(player, groupName, true);
+    }
+
+    @Override
+    public boolean isInGroup(Player player, String groupName) {
+        return get(player, groupName, false);
+    }
+
+    /**
+     * Gets the approximate number of cached answers.
+     *
+     * @return The number of answers.
+     */
+    public long size() {
+        long size = 0;
+        for (Cache<GroupKey, Boolean> cache : caches.values()) {
+            size += cache.size();
+        }
+        return size;
+    }
+}
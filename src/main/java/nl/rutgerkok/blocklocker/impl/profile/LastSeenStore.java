@@ -0,0 +1,259 @@
+package nl.rutgerkok.blocklocker.impl.profile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Remembers on which day players were last seen, independent of the player
+ * data of the server. Everything is kept in memory, so lookups are cheap.
+ *
+ * <p>
+ * Changes are appended to a file as records of 20 bytes: the unique id,
+ * followed by the number of days since 1970-01-01. When the file is opened,
+ * the last record of every player wins. If there are many outdated records,
+ * the file is rewritten.
+ *
+ * <p>
+ * Changes are not written by the thread that makes them, which is usually the
+ * main thread. Instead, the players that changed are queued, and written in
+ * one go by a task on the given executor. Closing the store writes the
+ * remaining changes.
+ */
+public final class LastSeenStore implements Closeable {
+
+    private static final int MAGIC = 0x424C5331; // "BLS1"
+    private static final int HEADER_SIZE = 4;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final int RECORD_SIZE = 20;
+
+    /**
+     * Creates a store that is only kept in memory. Used when the file cannot
+     * be opened.
+     *
+     * @return The store.
+     */
+    public static LastSeenStore inMemory() {
+        return new LastSeenStore(null, null, null, Runnable::run);
+    }
+
+    /**
+     * Opens the store, creating the file if it doesn't exist yet.
+     *
+     * @param file
+     *            The file.
+     * @param logger
+     *            Used to report failed writes.
+     * @param asyncExecutor
+     *            Used to write changes to the file.
+     * @return The store.
+     * @throws IOException
+     *             If reading the file fails.
+     */
+    public static LastSeenStore open(Path file, Logger logger, Executor asyncExecutor) throws IOException {
+        Preconditions.checkNotNull(logger, "logger");
+        Preconditions.checkNotNull(asyncExecutor, "asyncExecutor");
+        LastSeenStore store = new LastSeenStore(file, null, logger, asyncExecutor);
+        int records = store.read();
+        if (records > 2 * store.days.size()) {
+            store.rewrite();
+        }
+        store.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return store;
+    }
+
+    private static void putRecord(ByteBuffer buffer, UUID uuid, int day) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        buffer.putInt(day);
+    }
+
+    private final Executor asyncExecutor;
+    /**
+     * Only written to while holding {@link #writeLock}.
+     */
+    private volatile FileChannel channel;
+    private final Map<UUID, Integer> days = new ConcurrentHashMap<>();
+    private final Path file;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Logger logger;
+    /**
+     * Players whose day still needs to be written to the file.
+     */
+    private final Queue<UUID> unwritten = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+
+    private LastSeenStore(Path file, FileChannel channel, Logger logger, Executor asyncExecutor) {
+        this.file = file;
+        this.channel = channel;
+        this.logger = logger;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            flush();
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Writes the queued changes to the file.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        synchronized (writeLock) {
+            if (channel == null || unwritten.isEmpty()) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(unwritten.size() * RECORD_SIZE);
+            UUID uuid;
+            while (buffer.remaining() >= RECORD_SIZE && (uuid = unwritten.poll()) != null) {
+                putRecord(buffer, uuid, days.get(uuid));
+            }
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE,
+                        "Failed to write to " + file.getFileName() + ", no longer saving last seen times", e);
+                try {
+                    channel.close();
+                } catch (IOException e1) {
+                    // Ignore, already reported a failure
+                }
+                channel = null;
+                unwritten.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets when the player was last seen. As only the day is stored, the end
+     * of that day is returned, so that players never expire too early.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     * @return Milliseconds since the epoch, or empty if the player was never
+     *         seen.
+     */
+    public OptionalLong getLastSeen(UUID uuid) {
+        Integer day = days.get(uuid);
+        if (day == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of((day + 1) * MILLIS_PER_DAY - 1);
+    }
+
+    /**
+     * Reads the file, if it exists. Creates or replaces the file if it is
+     * missing or not in the right format.
+     *
+     * @return The number of records in the file.
+     * @throws IOException
+     *             If reading fails.
+     */
+    private int read() throws IOException {
+        if (!Files.exists(file)) {
+            rewrite();
+            return 0;
+        }
+
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(readChannel.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && readChannel.read(buffer) != -1) {
+                // Keep reading
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                logger.warning("Unknown format of " + file.getFileName() + ", starting over");
+                days.clear();
+                rewrite();
+                return 0;
+            }
+
+            int records = 0;
+            while (buffer.remaining() >= RECORD_SIZE) {
+                UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+                days.put(uuid, buffer.getInt());
+                records++;
+            }
+            if (buffer.hasRemaining()) {
+                // Partially written record, for example after a crash
+                rewrite();
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Replaces the file by a file with a single record for every player.
+     *
+     * @throws IOException
+     *             If writing fails.
+     */
+    private void rewrite() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + days.size() * RECORD_SIZE);
+        buffer.putInt(MAGIC);
+        days.forEach((uuid, day) -> putRecord(buffer, uuid, day));
+        buffer.flip();
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel writeChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                writeChannel.write(buffer);
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records that the player was seen at the given time. Only writes to disk
+     * if the day changed, and only on the executor given on creation. Times
+     * before the time that is already stored are ignored.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     * @param millis
+     *            Milliseconds since the epoch.
+     */
+    public synchronized void setLastSeen(UUID uuid, long millis) {
+        int day = (int) Math.floorDiv(millis, MILLIS_PER_DAY);
+        Integer oldDay = days.get(uuid);
+        if (oldDay != null && oldDay >= day) {
+            return;
+        }
+        days.put(uuid, day);
+        if (channel == null) {
+            return;
+        }
+        unwritten.add(uuid);
+        if (flushScheduled.compareAndSet(false, true)) {
+            asyncExecutor.execute(this::flush);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package nl.rutgerkok.blocklocker.impl.profile;
+
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Remembers when players were last online, so that checking whether a
+ * protection has expired never needs to read player data from disk on the
+ * main thread.
+ *
+ * <p>
+ * Players are first looked up in the {@link LastSeenStore} of the plugin.
+ * Players that are not in there are looked up in the player data on another
+ * thread. Until that lookup is finished, they are considered active. After
+ * that, the cache is kept up to date by {@link #playerJoined(UUID)} and
+ * {@link #playerQuit(UUID)}.
+ *
+ * <p>
+ * Players that are not asked for are forgotten after a while. Their time is
+ * then read from the {@link LastSeenStore} again.
+ */
+public final class PlayerActivityCache {
+
+    /**
+     * Stored as the last played time of players that are online right now.
+     */
+    private static final long ONLINE = Long.MAX_VALUE;
+    private static final long EXPIRE_TIME_MINUTES = 30;
+    private static final long MAX_SIZE = 10000;
+
+    /**
+     * Reads when the player was last online from the player data. Slow, so
+     * this must not be called on the main thread.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     * @return When the player was last online, in milliseconds since the
+     *         epoch, or {@link Long#MAX_VALUE} if the player is online right
+     *         now.
+     */
+    public static long readLastPlayed(UUID uuid) {
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        if (player.isOnline()) {
+            return ONLINE;
+        }
+        return player.getLastPlayed();
+    }
+
+    private final Executor asyncExecutor;
+    private final Cache<UUID, Long> lastPlayed = CacheBuilder.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfterAccess(EXPIRE_TIME_MINUTES, TimeUnit.MINUTES)
+            .build();
+    private final ToLongFunction<UUID> lastPlayedReader;
+    private final LastSeenStore lastSeenStore;
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param asyncExecutor
+     *            Used to look up players that are not known yet.
+     * @param lastPlayedReader
+     *            Reads when a player was last online, usually
+     *            {@link #readLastPlayed(UUID)}.
+     * @param lastSeenStore
+     *            The times players were last seen, as recorded by this plugin.
+     */
+    public PlayerActivityCache(Executor asyncExecutor, ToLongFunction<UUID> lastPlayedReader,
+            LastSeenStore lastSeenStore) {
+        this.asyncExecutor = Preconditions.checkNotNull(asyncExecutor, "asyncExecutor");
+        this.lastPlayedReader = Preconditions.checkNotNull(lastPlayedReader, "lastPlayedReader");
+        this.lastSeenStore = Preconditions.checkNotNull(lastSeenStore, "lastSeenStore");
+    }
+
+    /**
+     * Checks whether the player has not been online since the given time.
+     * Never blocks: if the player is not known yet, the player is looked up on
+     * another thread and false is returned for now.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     * @param cutoffMillis
+     *            The time, in milliseconds since the epoch.
+     * @return True if the player is known to be inactive, false otherwise.
+     */
+    boolean isInactiveSince(UUID uuid, long cutoffMillis) {
+        Long time = lastPlayed.getIfPresent(uuid);
+        if (time != null) {
+            return time <= cutoffMillis;
+        }
+        OptionalLong lastSeen = lastSeenStore.getLastSeen(uuid);
+        if (lastSeen.isPresent()) {
+            return lastSeen.getAsLong() <= cutoffMillis;
+        }
+        startLoading(uuid);
+        return false;
+    }
+
+    /**
+     * Call this method when a player joined the server.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     */
+    public void playerJoined(UUID uuid) {
+        lastPlayed.put(uuid, ONLINE);
+        lastSeenStore.setLastSeen(uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Call this method when a player left the server.
+     *
+     * @param uuid
+     *            Unique id of the player.
+     */
+    public void playerQuit(UUID uuid) {
+        long now = System.currentTimeMillis();
+        lastPlayed.put(uuid, now);
+        lastSeenStore.setLastSeen(uuid, now);
+    }
+
+    private void startLoading(UUID uuid) {
+        if (!loading.add(uuid)) {
+            return;
+        }
+        asyncExecutor.execute(() -> {
+            try {
+                // Don't overwrite the time of a join or quit in the meantime
+                long time = lastPlayedReader.applyAsLong(uuid);
+                lastPlayed.asMap().putIfAbsent(uuid, time);
+                if (time != ONLINE && time > 0) {
+                    lastSeenStore.setLastSeen(uuid, time);
+                }
+            } finally {
+                loading.remove(uuid);
+            }
+        });
+    }
+}
@@ -5,9 +5,6 @@ import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
-
 import nl.rutgerkok.blocklocker.SecretSignEntry;
 import nl.rutgerkok.blocklocker.profile.PlayerProfile;
 import nl.rutgerkok.blocklocker.profile.Profile;
@@ -16,12 +13,14 @@ class PlayerProfileImpl implements PlayerProfile {
 
     static final String NAME_KEY = "n";
     static final String UUID_KEY = "u";
-    private String displayName;
+    private final PlayerActivityCache activityCache;
+    private final String displayName;
     private final Optional<UUID> uuid;
 
-    PlayerProfileImpl(String displayName, Optional<UUID> uuid) {
+    PlayerProfileImpl(String displayName, Optional<UUID> uuid, PlayerActivityCache activityCache) {
         this.displayName = displayName;
         this.uuid = uuid;
+        this.activityCache = activityCache;
     }
 
     /**
@@ -81,6 +80,10 @@ class PlayerProfileImpl implements PlayerProfile {
 
     @Override
     public boolean includes(Profile other) {
+        if (other == this) {
+            // Common case, as profiles with a unique id are shared
+            return true;
+        }
         if (!(other instanceof PlayerProfile)) {
             return false;
         }
@@ -94,20 +97,10 @@ class PlayerProfileImpl implements PlayerProfile {
 
     @Override
     public boolean isExpired(Date cutoffDate) {
-
-
         if (uuid.isPresent()) {
-            OfflinePlayer player = Bukkit.getOfflinePlayer(uuid.get());
-
-            if (player.isOnline()) {
-                return false;
-            }
-            if (player.getLastPlayed() > cutoffDate.getTime()) {
-                return false;
-            }
-
-            // We know for sure: expired
-            return true;
+            // Never reads player data on this thread, so players that are not
+            // known yet are not expired until they have been looked up
+            return activityCache.isInactiveSince(uuid.get(), cutoffDate.getTime());
         }
 
         // No UUID, so unable to lookup last login
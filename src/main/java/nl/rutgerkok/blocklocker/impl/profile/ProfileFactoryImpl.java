@@ -1,52 +1,78 @@
 package nl.rutgerkok.blocklocker.impl.profile;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
 
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
-import org.bukkit.util.StringUtil;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
 
 import nl.rutgerkok.blocklocker.ProfileFactory;
 import nl.rutgerkok.blocklocker.SecretSignEntry;
 import nl.rutgerkok.blocklocker.Translator;
 import nl.rutgerkok.blocklocker.Translator.Translation;
 import nl.rutgerkok.blocklocker.group.GroupSystem;
+import nl.rutgerkok.blocklocker.impl.CaseInsensitiveLookup;
 import nl.rutgerkok.blocklocker.profile.PlayerProfile;
 import nl.rutgerkok.blocklocker.profile.Profile;
 
 public final class ProfileFactoryImpl implements ProfileFactory {
 
-    private static final Profile EMPTY_PROFILE = new PlayerProfileImpl("", Optional.empty());
+    /**
+     * Checks whether the profile needs to ask the group systems to find out
+     * whether it includes another profile. That can be slow, as group systems
+     * often call other plugins.
+     *
+     * @param profile
+     *            The profile.
+     * @return True if the group systems are needed, false otherwise.
+     */
+    public static boolean needsGroupSystem(Profile profile) {
+        return profile instanceof GroupProfileImpl || profile instanceof GroupLeaderProfileImpl;
+    }
 
+    private final PlayerActivityCache activityCache;
+    private final Profile emptyProfile;
     private final Profile everyoneProfile;
-    private final List<String> everyoneTagList;
     private final GroupSystem groupSystem;
     private final Profile redstoneProfile;
     private final Profile golemProfile;
-    private final List<String> redstoneTagList;
-    private final List<String> golemTagList;
-    private final List<String> timerTagStart;
+    /**
+     * Player profiles with a unique id that are currently in use, so that the
+     * same player is always represented by the same object.
+     */
+    private final ConcurrentMap<UUID, PlayerProfileImpl> playerProfiles = new MapMaker().weakValues().makeMap();
+    /**
+     * The [Everyone], [Redstone] and [Golem] tags in all languages, without
+     * the brackets.
+     */
+    private final CaseInsensitiveLookup<Translation> tags;
+    /**
+     * The [Timer:X] tags in all languages, without the bracket and colon.
+     * Maps any casing to the translated tag.
+     */
+    private final CaseInsensitiveLookup<String> timerTags;
     private final Translator translator;
 
-    public ProfileFactoryImpl(GroupSystem groupSystem, Translator translator) {
+    public ProfileFactoryImpl(GroupSystem groupSystem, Translator translator, PlayerActivityCache activityCache) {
         this.groupSystem = Preconditions.checkNotNull(groupSystem);
         this.translator = Preconditions.checkNotNull(translator);
+        this.activityCache = Preconditions.checkNotNull(activityCache);
+        this.emptyProfile = new PlayerProfileImpl("", Optional.empty(), activityCache);
 
-        this.everyoneTagList = new ArrayList<>();
-        this.redstoneTagList = new ArrayList<>();
-        this.golemTagList = new ArrayList<>();
-        this.timerTagStart = new ArrayList<>();
+        CaseInsensitiveLookup.Builder<Translation> tags = CaseInsensitiveLookup.builder();
+        for (Translation tag : new Translation[] { Translation.TAG_EVERYONE, Translation.TAG_REDSTONE, Translation.TAG_GOLEM }) {
+            translator.getAllWithoutColor(tag).forEach(value -> tags.add(value, tag));
+        }
+        this.tags = tags.build();
 
-        translator.getAllWithoutColor(Translation.TAG_EVERYONE).forEach(value -> this.everyoneTagList.add("[" + value + "]"));
-        translator.getAllWithoutColor(Translation.TAG_REDSTONE).forEach(value -> this.redstoneTagList.add("[" + value + "]"));
-        translator.getAllWithoutColor(Translation.TAG_GOLEM).forEach(value -> this.golemTagList.add("[" + value + "]"));
-        translator.getAllWithoutColor(Translation.TAG_TIMER).forEach(value -> this.timerTagStart.add("[" + value + ":"));
+        CaseInsensitiveLookup.Builder<String> timerTags = CaseInsensitiveLookup.builder();
+        translator.getAllWithoutColor(Translation.TAG_TIMER).forEach(value -> timerTags.add(value, value));
+        this.timerTags = timerTags.build();
 
         this.everyoneProfile = new EveryoneProfileImpl(translator.get(Translation.TAG_EVERYONE));
         this.redstoneProfile = new RedstoneProfileImpl(translator.get(Translation.TAG_REDSTONE));
@@ -60,7 +86,7 @@ public final class ProfileFactoryImpl implements ProfileFactory {
      * @return The empty profile.
      */
     public Profile emptyProfile() {
-        return EMPTY_PROFILE;
+        return emptyProfile;
     }
 
     /**
@@ -75,28 +101,29 @@ public final class ProfileFactoryImpl implements ProfileFactory {
         final String stripped = ChatColor.stripColor(text.trim());
 
         if (stripped.length() > 2) {
-            // [Everyone]
-            if (everyoneTagList.stream().anyMatch(s -> s.equalsIgnoreCase(stripped))) {
-                return new EveryoneProfileImpl(stripped.substring(1, stripped.length() - 1));
-            }
-
-            // [Redstone]
-            if (redstoneTagList.stream().anyMatch(s -> s.equalsIgnoreCase(stripped))) {
-                return new RedstoneProfileImpl(stripped.substring(1, stripped.length() - 1));
-            }
-
-            // [Golem]
-            if (golemTagList.stream().anyMatch(s -> s.equalsIgnoreCase(stripped))) {
-                return new GolemProfileImpl(stripped.substring(1, stripped.length() - 1));
-            }
+            if (stripped.startsWith("[") && stripped.endsWith("]")) {
+                Translation tag = tags.get(stripped, 1, stripped.length() - 1);
+                if (tag == Translation.TAG_EVERYONE) {
+                    // [Everyone]
+                    return new EveryoneProfileImpl(stripped.substring(1, stripped.length() - 1));
+                }
+                if (tag == Translation.TAG_REDSTONE) {
+                    // [Redstone]
+                    return new RedstoneProfileImpl(stripped.substring(1, stripped.length() - 1));
+                }
+                if (tag == Translation.TAG_GOLEM) {
+                    // [Golem]
+                    return new GolemProfileImpl(stripped.substring(1, stripped.length() - 1));
+                }
 
-            // [Timer:X]
-            if (timerTagStart.stream().anyMatch(s -> StringUtil.startsWithIgnoreCase(stripped, s) && stripped.endsWith("]"))) {
-                return readTimerProfile(stripped);
-            }
+                // [Timer:X]
+                int colonIndex = stripped.indexOf(':');
+                String timerTag = colonIndex == -1 ? null : timerTags.get(stripped, 1, colonIndex);
+                if (timerTag != null) {
+                    return readTimerProfile(stripped, colonIndex, timerTag);
+                }
 
-            // [GroupName]
-            if (stripped.startsWith("[") && stripped.endsWith("]")) {
+                // [GroupName]
                 return new GroupProfileImpl(groupSystem, stripped.substring(1, stripped.length() - 1));
             }
 
@@ -111,7 +138,7 @@ public final class ProfileFactoryImpl implements ProfileFactory {
                 String name = stripped.substring(0, hashCharIndex);
                 try {
                     UUID uuid = UUID.fromString(stripped.substring(hashCharIndex + 1));
-                    return new PlayerProfileImpl(name, Optional.of(uuid));
+                    return getPlayerProfile(name, uuid);
                 } catch (IllegalArgumentException e) {
                     // Ignore, not in name#uuid format. Someone probably added
                     // a # for some other reason
@@ -119,7 +146,7 @@ public final class ProfileFactoryImpl implements ProfileFactory {
             }
         }
 
-        return new PlayerProfileImpl(stripped, Optional.empty());
+        return new PlayerProfileImpl(stripped, Optional.empty(), activityCache);
     }
 
     @Override
@@ -131,14 +158,16 @@ public final class ProfileFactoryImpl implements ProfileFactory {
     public PlayerProfile fromNameAndUniqueId(String name, Optional<UUID> uuid) {
         Preconditions.checkNotNull(name, "name");
         Preconditions.checkNotNull(uuid, "uuid");
-        return new PlayerProfileImpl(name, uuid);
+        if (uuid.isPresent()) {
+            return getPlayerProfile(name, uuid.get());
+        }
+        return new PlayerProfileImpl(name, uuid, activityCache);
     }
 
     @Override
     public PlayerProfile fromPlayer(Player player) {
         Preconditions.checkNotNull(player);
-        Optional<UUID> uuid = Optional.of(player.getUniqueId());
-        return new PlayerProfileImpl(player.getName(), uuid);
+        return getPlayerProfile(player.getName(), player.getUniqueId());
     }
 
     @Override
@@ -164,8 +193,7 @@ public final class ProfileFactoryImpl implements ProfileFactory {
         Optional<String> name = object.getString(PlayerProfileImpl.NAME_KEY);
         if (name.isPresent()) {
             Optional<UUID> uuid = object.getUniqueId(PlayerProfileImpl.UUID_KEY);
-            Profile profile = new PlayerProfileImpl(name.get(), uuid);
-            return Optional.of(profile);
+            return Optional.of(fromNameAndUniqueId(name.get(), uuid));
         }
 
         // [Everyone]
@@ -211,6 +239,28 @@ public final class ProfileFactoryImpl implements ProfileFactory {
         return Optional.empty();
     }
 
+    /**
+     * Gets the shared profile of the player with the given name and unique
+     * id, or creates it if there isn't one yet.
+     *
+     * @param name
+     *            Name of the player.
+     * @param uuid
+     *            Unique id of the player.
+     * @return The profile.
+     */
+    private PlayerProfileImpl getPlayerProfile(String name, UUID uuid) {
+        PlayerProfileImpl profile = playerProfiles.get(uuid);
+        if (profile != null && profile.getDisplayName().equals(name)) {
+            return profile;
+        }
+
+        // Not created yet, or the player was renamed
+        profile = new PlayerProfileImpl(name, Optional.of(uuid), activityCache);
+        playerProfiles.put(uuid, profile);
+        return profile;
+    }
+
     private int readDigit(char digit) {
         try {
             return Integer.parseInt(String.valueOf(digit));
@@ -219,19 +269,14 @@ public final class ProfileFactoryImpl implements ProfileFactory {
         }
     }
 
-    private Profile readTimerProfile(String text) {
-        // First decide which one to use
-        String tagStart = timerTagStart.stream()
-                .filter(tag -> StringUtil.startsWithIgnoreCase(text, tag) && text.endsWith("]")).findFirst()
-                .orElse(null);
-
-        char digit = text.charAt(tagStart.length());
+    private Profile readTimerProfile(String text, int colonIndex, String timerTag) {
+        char digit = text.charAt(colonIndex + 1);
         if (digit == ' ') {
             // In format [Timer: X]
-            digit = text.charAt(tagStart.length() + 1);
+            digit = text.charAt(colonIndex + 2);
         }
         int seconds = readDigit(digit);
-        return new TimerProfileImpl(tagStart.substring(1, tagStart.length() - 1), seconds);
+        return new TimerProfileImpl(timerTag, seconds);
     }
 
 }
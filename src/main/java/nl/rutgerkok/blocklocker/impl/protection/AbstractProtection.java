@@ -21,6 +21,7 @@ import java.util.Optional;
 abstract class AbstractProtection implements Protection {
 
     private Optional<Collection<Profile>> allAllowed = Optional.empty();
+    private Optional<AllowedProfiles> allowedProfiles = Optional.empty();
     private Optional<Profile> owner = Optional.empty();
     private Optional<Collection<ProtectionSign>> allSigns = Optional.empty();
 
@@ -147,10 +148,11 @@ abstract class AbstractProtection implements Protection {
 
     @Override
     public final boolean isAllowed(Profile profile) {
-        for (Profile allowed : getAllowed()) {
-            if (allowed.includes(profile)) {
-                return true;
-            }
+        if (!allowedProfiles.isPresent()) {
+            allowedProfiles = Optional.of(new AllowedProfiles(getAllowed()));
+        }
+        if (allowedProfiles.get().includes(profile)) {
+            return true;
         }
         if (!getOwner().isPresent()) {
             // [Private] sign is missing, only [More Users]
@@ -0,0 +1,94 @@
+package nl.rutgerkok.blocklocker.impl.protection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableSet;
+
+import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
+import nl.rutgerkok.blocklocker.profile.PlayerProfile;
+import nl.rutgerkok.blocklocker.profile.Profile;
+
+/**
+ * The allowed profiles of a protection, sorted by how expensive they are to
+ * check. Players are checked first using hash sets of unique ids and names,
+ * so protections with many [More Users] signs don't get slower. Then the
+ * other profiles like [Everyone] and [Redstone] are checked, and finally the
+ * group profiles, which need to ask the group systems.
+ */
+final class AllowedProfiles {
+
+    private final Profile[] cheapProfiles;
+    private final Profile[] groupProfiles;
+    /**
+     * Lowercase names of the players without a unique id.
+     */
+    private final ImmutableSet<String> names;
+    private final ImmutableSet<UUID> uniqueIds;
+
+    /**
+     * Sorts the given profiles.
+     *
+     * @param profiles All allowed profiles.
+     */
+    AllowedProfiles(Collection<Profile> profiles) {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        ImmutableSet.Builder<UUID> uniqueIds = ImmutableSet.builder();
+        List<Profile> cheapProfiles = new ArrayList<>();
+        List<Profile> groupProfiles = new ArrayList<>();
+        for (Profile profile : profiles) {
+            if (profile instanceof PlayerProfile playerProfile) {
+                Optional<UUID> uniqueId = playerProfile.getUniqueId();
+                if (uniqueId.isPresent()) {
+                    uniqueIds.add(uniqueId.get());
+                } else {
+                    names.add(playerProfile.getDisplayName().toLowerCase(Locale.ROOT));
+                }
+            } else if (ProfileFactoryImpl.needsGroupSystem(profile)) {
+                groupProfiles.add(profile);
+            } else {
+                cheapProfiles.add(profile);
+            }
+        }
+        this.names = names.build();
+        this.uniqueIds = uniqueIds.build();
+        this.cheapProfiles = cheapProfiles.toArray(new Profile[0]);
+        this.groupProfiles = groupProfiles.toArray(new Profile[0]);
+    }
+
+    /**
+     * Checks whether any of the allowed profiles includes the given profile.
+     *
+     * @param profile The profile to check.
+     * @return True if the profile is included, false otherwise.
+     */
+    boolean includes(Profile profile) {
+        if (profile instanceof PlayerProfile playerProfile) {
+            // A player profile with a unique id includes exactly the players
+            // with that unique id, a player profile without one includes all
+            // players with that name
+            Optional<UUID> uniqueId = playerProfile.getUniqueId();
+            if (uniqueId.isPresent() && uniqueIds.contains(uniqueId.get())) {
+                return true;
+            }
+            if (!names.isEmpty() && names.contains(playerProfile.getDisplayName().toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        for (Profile allowed : cheapProfiles) {
+            if (allowed.includes(profile)) {
+                return true;
+            }
+        }
+        for (Profile allowed : groupProfiles) {
+            if (allowed.includes(profile)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
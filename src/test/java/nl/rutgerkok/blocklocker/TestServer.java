@@ -0,0 +1,195 @@
+package nl.rutgerkok.blocklocker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+
+/**
+ * A fake {@link Server}, so that {@link Bukkit#isOwnedByCurrentRegion} and the
+ * {@link Tag} constants work without a running server. Only the few methods
+ * that the plugin needs are implemented.
+ *
+ */
+public final class TestServer {
+
+    private static final Logger LOGGER = Logger.getLogger("TestServer");
+
+    private static Tag<Material> createTag(NamespacedKey key) {
+        Set<Material> values = getTagValues(key.getKey());
+        return proxy(Tag.class, (method, args) -> {
+            switch (method.getName()) {
+                case "isTagged":
+                    return values.contains(args[0]);
+                case "getValues":
+                    return Collections.unmodifiableSet(values);
+                case "getKey":
+                case "key":
+                    return key;
+                default:
+                    return unsupported(method);
+            }
+        });
+    }
+
+    private static Set<Material> getTagValues(String path) {
+        switch (path) {
+            case "wall_signs":
+                return materials(name -> name.endsWith("_WALL_SIGN"));
+            case "standing_signs":
+                return materials(name -> name.endsWith("_SIGN") && !name.contains("WALL") && !name.contains("HANGING"));
+            case "signs":
+                return materials(name -> name.endsWith("_SIGN") && !name.contains("HANGING"));
+            case "all_signs":
+                return materials(name -> name.endsWith("_SIGN"));
+            case "doors":
+                return materials(name -> name.endsWith("_DOOR"));
+            case "trapdoors":
+                return materials(name -> name.endsWith("_TRAPDOOR"));
+            case "fence_gates":
+                return materials(name -> name.endsWith("_FENCE_GATE"));
+            default:
+                return EnumSet.noneOf(Material.class);
+        }
+    }
+
+    /**
+     * Installs the fake server, if no server has been installed yet. Must be
+     * called before the {@link Tag} class is used.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = proxy(Server.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getTag":
+                    return createTag((NamespacedKey) args[1]);
+                case "isOwnedByCurrentRegion":
+                case "isPrimaryThread":
+                    return true;
+                case "getLogger":
+                    return LOGGER;
+                case "getName":
+                    return "TestServer";
+                default:
+                    return unsupported(method);
+            }
+        });
+
+        try {
+            // Bukkit.setServer also prints version information, which is not
+            // available without a real server
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to install test server", e);
+        }
+    }
+
+    private static Set<Material> materials(Predicate<String> nameTest) {
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (Material material : Material.values()) {
+            String name = material.name().toUpperCase(Locale.ROOT);
+            if (!name.startsWith("LEGACY_") && nameTest.test(name)) {
+                materials.add(material);
+            }
+        }
+        return materials;
+    }
+
+    /**
+     * Creates a proxy object. Handles {@code equals}, {@code hashCode} and
+     * {@code toString} using object identity, all other calls are passed to
+     * the handler.
+     *
+     * @param <T>
+     *            Type of the proxy.
+     * @param type
+     *            Type of the proxy.
+     * @param handler
+     *            Handles all other calls.
+     * @param extraTypes
+     *            Extra interfaces for the proxy.
+     * @return The proxy.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<?> type, ProxyHandler handler, Class<?>... extraTypes) {
+        Class<?>[] types = new Class<?>[extraTypes.length + 1];
+        types[0] = type;
+        System.arraycopy(extraTypes, 0, types, 1, extraTypes.length);
+        return (T) Proxy.newProxyInstance(TestServer.class.getClassLoader(), types, (proxy, method, args) -> {
+            Object[] nonNullArgs = args == null ? new Object[0] : args;
+            switch (method.getName()) {
+                case "equals":
+                    if (method.getParameterCount() == 1) {
+                        return handler.equalsOrNull(proxy, nonNullArgs[0]) == Boolean.TRUE;
+                    }
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0) {
+                        Object hashCode = handler.hashCodeOrNull();
+                        return hashCode == null ? System.identityHashCode(proxy) : hashCode;
+                    }
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0) {
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                    }
+                    break;
+            }
+            return handler.invoke(method, nonNullArgs);
+        });
+    }
+
+    static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("Not implemented in test: " + method);
+    }
+
+    /**
+     * Handles calls to a proxy.
+     */
+    @FunctionalInterface
+    interface ProxyHandler {
+        /**
+         * Used to implement {@link Object#equals(Object)}. By default, object
+         * identity is used.
+         *
+         * @param self
+         *            The proxy.
+         * @param other
+         *            The object to compare to.
+         * @return True if equal.
+         */
+        default Boolean equalsOrNull(Object self, Object other) {
+            return self == other;
+        }
+
+        /**
+         * Used to implement {@link Object#hashCode()}.
+         *
+         * @return The hash code, or null to use the identity hash code.
+         */
+        default Integer hashCodeOrNull() {
+            return null;
+        }
+
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private TestServer() {
+        // No instances
+    }
+}
@@ -0,0 +1,724 @@
+package nl.rutgerkok.blocklocker;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+import org.bukkit.block.data.Bisected;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.type.Chest;
+import org.bukkit.block.data.type.Door;
+import org.bukkit.block.data.type.Gate;
+import org.bukkit.block.data.type.TrapDoor;
+import org.bukkit.block.data.type.WallSign;
+import org.bukkit.block.sign.Side;
+import org.bukkit.block.sign.SignSide;
+import org.bukkit.persistence.PersistentDataAdapterContext;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import nl.rutgerkok.blocklocker.TestServer.ProxyHandler;
+import nl.rutgerkok.blocklocker.impl.PackedPosition;
+
+/**
+ * An in-memory world, so that protections can be tested and benchmarked
+ * without a server. All blocks are air, unless they were set to something
+ * else. Only the methods used by the plugin are implemented.
+ *
+ * <p>
+ * This uses plain proxies instead of Mockito, as Mockito would add a lot of
+ * overhead to every call, which is a problem for the benchmarks.
+ */
+public final class TestWorld {
+
+    /**
+     * Contents of a single block, including sign text and persistent data.
+     */
+    private static final class BlockContents {
+        private final BlockData blockData;
+        private final String[] frontLines;
+        private final String[] backLines;
+        private final Map<NamespacedKey, Object> persistentData;
+
+        private BlockContents(BlockData blockData) {
+            this.blockData = blockData;
+            if (isSign(blockData.getMaterial())) {
+                this.frontLines = new String[] { "", "", "", "" };
+                this.backLines = new String[] { "", "", "", "" };
+            } else {
+                this.frontLines = null;
+                this.backLines = null;
+            }
+            this.persistentData = new LinkedHashMap<>();
+        }
+
+        private BlockContents(BlockContents original) {
+            this.blockData = original.blockData.clone();
+            this.frontLines = original.frontLines == null ? null : original.frontLines.clone();
+            this.backLines = original.backLines == null ? null : original.backLines.clone();
+            this.persistentData = new LinkedHashMap<>(original.persistentData);
+        }
+
+        private boolean isSign() {
+            return frontLines != null;
+        }
+    }
+
+    private static final BlockContents AIR = new BlockContents(createBlockData(Material.AIR));
+
+    /**
+     * Creates block data for the given material. Chests, signs, doors,
+     * trapdoors and fence gates get their usual properties, with the defaults
+     * from vanilla Minecraft.
+     *
+     * @param material
+     *            The material.
+     * @return The block data.
+     */
+    public static BlockData createBlockData(Material material) {
+        Map<String, Object> properties = new HashMap<>();
+        Class<?> type = BlockData.class;
+        String name = material.name();
+        if (material == Material.CHEST || material == Material.TRAPPED_CHEST || name.endsWith("COPPER_CHEST")) {
+            type = Chest.class;
+            properties.put("facing", BlockFace.NORTH);
+            properties.put("type", Chest.Type.SINGLE);
+        } else if (name.endsWith("_WALL_SIGN")) {
+            type = WallSign.class;
+            properties.put("facing", BlockFace.NORTH);
+        } else if (isSign(material)) {
+            type = org.bukkit.block.data.type.Sign.class;
+            properties.put("rotation", BlockFace.NORTH);
+        } else if (name.endsWith("_TRAPDOOR")) {
+            type = TrapDoor.class;
+            properties.put("facing", BlockFace.NORTH);
+            properties.put("half", Bisected.Half.BOTTOM);
+            properties.put("open", false);
+        } else if (name.endsWith("_DOOR")) {
+            type = Door.class;
+            properties.put("facing", BlockFace.NORTH);
+            properties.put("half", Bisected.Half.BOTTOM);
+            properties.put("hinge", Door.Hinge.LEFT);
+            properties.put("open", false);
+        } else if (name.endsWith("_FENCE_GATE")) {
+            type = Gate.class;
+            properties.put("facing", BlockFace.NORTH);
+            properties.put("open", false);
+        } else if (material == Material.BARREL || material == Material.FURNACE || material == Material.HOPPER) {
+            type = Directional.class;
+            properties.put("facing", BlockFace.NORTH);
+        }
+        if (isSign(material) || type == TrapDoor.class || type == Chest.class) {
+            properties.put("waterlogged", false);
+        }
+        return createBlockData(material, type, properties);
+    }
+
+    private static BlockData createBlockData(Material material, Class<?> type, Map<String, Object> properties) {
+        return TestServer.proxy(type, new ProxyHandler() {
+
+            @Override
+            public Boolean equalsOrNull(Object self, Object other) {
+                return other instanceof BlockData && ((BlockData) other).getAsString().equals(getAsString());
+            }
+
+            private String getAsString() {
+                return material.getKey() + new TreeMap<>(properties).toString();
+            }
+
+            @Override
+            public Integer hashCodeOrNull() {
+                return getAsString().hashCode();
+            }
+
+            @Override
+            public Object invoke(Method method, Object[] args) {
+                String name = method.getName();
+                switch (name) {
+                    case "getMaterial":
+                        return material;
+                    case "clone":
+                        return createBlockData(material, type, new HashMap<>(properties));
+                    case "getAsString":
+                        return getAsString();
+                    case "matches":
+                        return args[0] != null && ((BlockData) args[0]).getMaterial() == material;
+                }
+                if (name.startsWith("set") && args.length == 1) {
+                    properties.put(propertyName(name, 3), args[0]);
+                    return null;
+                }
+                if (name.startsWith("get") && args.length == 0 && properties.containsKey(propertyName(name, 3))) {
+                    return properties.get(propertyName(name, 3));
+                }
+                if (name.startsWith("is") && args.length == 0 && properties.containsKey(propertyName(name, 2))) {
+                    return properties.get(propertyName(name, 2));
+                }
+                return TestServer.unsupported(method);
+            }
+        });
+    }
+
+    private static boolean isSign(Material material) {
+        String name = material.name();
+        return name.endsWith("_SIGN") && !name.contains("HANGING") && !name.startsWith("LEGACY_");
+    }
+
+    private static String propertyName(String methodName, int prefixLength) {
+        return methodName.substring(prefixLength, prefixLength + 1).toLowerCase(Locale.ROOT)
+                + methodName.substring(prefixLength + 1);
+    }
+
+    private final Map<Long, BlockContents> blocks = new HashMap<>();
+    private final String name;
+    private final UUID uid;
+    private final World world;
+
+    /**
+     * Creates a new, empty world.
+     *
+     * @param name
+     *            Name of the world.
+     */
+    public TestWorld(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        this.world = TestServer.proxy(World.class, this::invokeWorld);
+    }
+
+    private Block createBlock(int x, int y, int z) {
+        return TestServer.proxy(Block.class, new ProxyHandler() {
+
+            @Override
+            public Boolean equalsOrNull(Object self, Object other) {
+                if (!(other instanceof Block)) {
+                    return false;
+                }
+                Block block = (Block) other;
+                return block.getX() == x && block.getY() == y && block.getZ() == z && block.getWorld() == world;
+            }
+
+            @Override
+            public Integer hashCodeOrNull() {
+                return Objects.hash(uid, x, y, z);
+            }
+
+            @Override
+            public Object invoke(Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getX":
+                        return x;
+                    case "getY":
+                        return y;
+                    case "getZ":
+                        return z;
+                    case "getWorld":
+                        return world;
+                    case "getChunk":
+                        return createChunk(x >> 4, z >> 4);
+                    case "getLocation":
+                        if (args.length == 0) {
+                            return new Location(world, x, y, z);
+                        }
+                        Location location = (Location) args[0];
+                        if (location != null) {
+                            location.setWorld(world);
+                            location.set(x, y, z);
+                        }
+                        return location;
+                    case "getType":
+                        return getContents(x, y, z).blockData.getMaterial();
+                    case "getBlockData":
+                        return getContents(x, y, z).blockData.clone();
+                    case "isEmpty":
+                        return getContents(x, y, z).blockData.getMaterial().isAir();
+                    case "setType":
+                        setBlockData(x, y, z, createBlockData((Material) args[0]));
+                        return null;
+                    case "setBlockData":
+                        setBlockData(x, y, z, ((BlockData) args[0]).clone());
+                        return null;
+                    case "breakNaturally":
+                        setBlockData(x, y, z, AIR.blockData.clone());
+                        return true;
+                    case "getRelative":
+                        if (args.length == 3) {
+                            return getBlockAt(x + (int) args[0], y + (int) args[1], z + (int) args[2]);
+                        }
+                        BlockFace face = (BlockFace) args[0];
+                        int distance = args.length == 2 ? (int) args[1] : 1;
+                        return getBlockAt(x + face.getModX() * distance, y + face.getModY() * distance,
+                                z + face.getModZ() * distance);
+                    case "getFace":
+                        Block other = (Block) args[0];
+                        for (BlockFace candidate : BlockFace.values()) {
+                            if (x + candidate.getModX() == other.getX() && y + candidate.getModY() == other.getY()
+                                    && z + candidate.getModZ() == other.getZ()) {
+                                return candidate;
+                            }
+                        }
+                        return null;
+                    case "getState":
+                        return createState(x, y, z, new BlockContents(getContents(x, y, z)));
+                    default:
+                        return TestServer.unsupported(method);
+                }
+            }
+        });
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ) {
+        return TestServer.proxy(Chunk.class, new ProxyHandler() {
+
+            @Override
+            public Boolean equalsOrNull(Object self, Object other) {
+                if (!(other instanceof Chunk)) {
+                    return false;
+                }
+                Chunk chunk = (Chunk) other;
+                return chunk.getX() == chunkX && chunk.getZ() == chunkZ && chunk.getWorld() == world;
+            }
+
+            @Override
+            public Integer hashCodeOrNull() {
+                return Objects.hash(uid, chunkX, chunkZ);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public Object invoke(Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getX":
+                        return chunkX;
+                    case "getZ":
+                        return chunkZ;
+                    case "getWorld":
+                        return world;
+                    case "isLoaded":
+                        return true;
+                    case "getBlock":
+                        return getBlockAt((chunkX << 4) + (int) args[0], (int) args[1], (chunkZ << 4) + (int) args[2]);
+                    case "getTileEntities":
+                        Predicate<Block> filter = args.length >= 1 ? (Predicate<Block>) args[0] : block -> true;
+                        return getTileEntities(chunkX, chunkZ, filter);
+                    default:
+                        return TestServer.unsupported(method);
+                }
+            }
+        });
+    }
+
+    private PersistentDataContainer createPersistentDataContainer(Map<NamespacedKey, Object> values) {
+        PersistentDataAdapterContext context = TestServer.proxy(PersistentDataAdapterContext.class, (method, args) -> {
+            if (method.getName().equals("newPersistentDataContainer")) {
+                return createPersistentDataContainer(new LinkedHashMap<>());
+            }
+            return TestServer.unsupported(method);
+        });
+        return TestServer.proxy(PersistentDataContainer.class, new ProxyHandler() {
+
+            @Override
+            public Boolean equalsOrNull(Object self, Object other) {
+                return self == other;
+            }
+
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            @Override
+            public Object invoke(Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "set": {
+                        PersistentDataType type = (PersistentDataType) args[1];
+                        values.put((NamespacedKey) args[0], type.toPrimitive(args[2], context));
+                        return null;
+                    }
+                    case "has": {
+                        Object value = values.get(args[0]);
+                        if (args.length == 1) {
+                            return value != null;
+                        }
+                        return value != null && ((PersistentDataType) args[1]).getPrimitiveType().isInstance(value);
+                    }
+                    case "get":
+                    case "getOrDefault": {
+                        PersistentDataType type = (PersistentDataType) args[1];
+                        Object value = values.get(args[0]);
+                        if (value == null || !type.getPrimitiveType().isInstance(value)) {
+                            return args.length == 3 ? args[2] : null;
+                        }
+                        return type.fromPrimitive(value, context);
+                    }
+                    case "remove":
+                        values.remove(args[0]);
+                        return null;
+                    case "getKeys":
+                        return new HashSet<>(values.keySet());
+                    case "isEmpty":
+                        return values.isEmpty();
+                    case "getAdapterContext":
+                        return context;
+                    default:
+                        return TestServer.unsupported(method);
+                }
+            }
+        });
+    }
+
+    private SignSide createSignSide(String[] lines) {
+        return TestServer.proxy(SignSide.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getLines":
+                    return lines.clone();
+                case "getLine":
+                    return lines[(int) args[0]];
+                case "setLine":
+                    lines[(int) args[0]] = (String) args[1];
+                    return null;
+                default:
+                    return TestServer.unsupported(method);
+            }
+        });
+    }
+
+    private BlockState createState(int x, int y, int z, BlockContents snapshot) {
+        PersistentDataContainer persistentData = createPersistentDataContainer(snapshot.persistentData);
+        SignSide front = snapshot.isSign() ? createSignSide(snapshot.frontLines) : null;
+        SignSide back = snapshot.isSign() ? createSignSide(snapshot.backLines) : null;
+        Class<?> type = snapshot.isSign() ? Sign.class : BlockState.class;
+        return TestServer.proxy(type, (method, args) -> {
+            switch (method.getName()) {
+                case "getBlock":
+                    return getBlockAt(x, y, z);
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "getWorld":
+                    return world;
+                case "getLocation":
+                    if (args.length == 0) {
+                        return new Location(world, x, y, z);
+                    }
+                    return TestServer.unsupported(method);
+                case "getType":
+                    return snapshot.blockData.getMaterial();
+                case "getBlockData":
+                    return snapshot.blockData.clone();
+                case "isPlaced":
+                    return true;
+                case "getPersistentDataContainer":
+                    return persistentData;
+                case "getSide":
+                    return args[0] == Side.BACK ? back : front;
+                case "getLines":
+                    return front.getLines();
+                case "getLine":
+                    return front.getLine((int) args[0]);
+                case "setLine":
+                    front.setLine((int) args[0], (String) args[1]);
+                    return null;
+                case "update":
+                    boolean force = args.length >= 1 && (boolean) args[0];
+                    if (!force && getContents(x, y, z).blockData.getMaterial() != snapshot.blockData.getMaterial()) {
+                        return false;
+                    }
+                    blocks.put(PackedPosition.pack(x, y, z), new BlockContents(snapshot));
+                    return true;
+                default:
+                    return TestServer.unsupported(method);
+            }
+        });
+    }
+
+    /**
+     * Gets the block at the given position.
+     *
+     * @param x
+     *            X position.
+     * @param y
+     *            Y position.
+     * @param z
+     *            Z position.
+     * @return The block.
+     */
+    public Block getBlockAt(int x, int y, int z) {
+        return createBlock(x, y, z);
+    }
+
+    private BlockContents getContents(int x, int y, int z) {
+        return blocks.getOrDefault(PackedPosition.pack(x, y, z), AIR);
+    }
+
+    private List<BlockState> getTileEntities(int chunkX, int chunkZ, Predicate<Block> filter) {
+        List<BlockState> states = new ArrayList<>();
+        for (Map.Entry<Long, BlockContents> entry : blocks.entrySet()) {
+            long position = entry.getKey();
+            int x = PackedPosition.unpackX(position);
+            int y = PackedPosition.unpackY(position);
+            int z = PackedPosition.unpackZ(position);
+            if (x >> 4 != chunkX || z >> 4 != chunkZ || !entry.getValue().isSign()) {
+                continue;
+            }
+            if (filter.test(getBlockAt(x, y, z))) {
+                states.add(createState(x, y, z, new BlockContents(entry.getValue())));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Gets the Bukkit world.
+     *
+     * @return The world.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    private Object invokeWorld(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getUID":
+                return uid;
+            case "getName":
+                return name;
+            case "getMinHeight":
+                return -64;
+            case "getMaxHeight":
+                return 320;
+            case "isChunkLoaded":
+                return true;
+            case "getBlockAt":
+                if (args.length == 1) {
+                    Location location = (Location) args[0];
+                    return getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                }
+                return getBlockAt((int) args[0], (int) args[1], (int) args[2]);
+            case "getType":
+                if (args.length == 3) {
+                    return getContents((int) args[0], (int) args[1], (int) args[2]).blockData.getMaterial();
+                }
+                return TestServer.unsupported(method);
+            case "getChunkAt":
+                if (args.length >= 2 && args[0] instanceof Integer) {
+                    return createChunk((int) args[0], (int) args[1]);
+                }
+                if (args[0] instanceof Block) {
+                    Block block = (Block) args[0];
+                    return createChunk(block.getX() >> 4, block.getZ() >> 4);
+                }
+                return TestServer.unsupported(method);
+            default:
+                return TestServer.unsupported(method);
+        }
+    }
+
+    /**
+     * Places a block.
+     *
+     * @param x
+     *            X position.
+     * @param y
+     *            Y position.
+     * @param z
+     *            Z position.
+     * @param material
+     *            The material.
+     * @return The block.
+     */
+    public Block setBlock(int x, int y, int z, Material material) {
+        setBlockData(x, y, z, createBlockData(material));
+        return getBlockAt(x, y, z);
+    }
+
+    /**
+     * Places a block facing in the given direction.
+     *
+     * @param x
+     *            X position.
+     * @param y
+     *            Y position.
+     * @param z
+     *            Z position.
+     * @param material
+     *            The material, must be {@link Directional}.
+     * @param facing
+     *            The direction.
+     * @return The block.
+     */
+    public Block setBlock(int x, int y, int z, Material material, BlockFace facing) {
+        BlockData blockData = createBlockData(material);
+        ((Directional) blockData).setFacing(facing);
+        setBlockData(x, y, z, blockData);
+        return getBlockAt(x, y, z);
+    }
+
+    private void setBlockData(int x, int y, int z, BlockData blockData) {
+        long position = PackedPosition.pack(x, y, z);
+        if (blockData.getMaterial().isAir()) {
+            blocks.remove(position);
+        } else {
+            blocks.put(position, new BlockContents(blockData));
+        }
+    }
+
+    /**
+     * Places a wall sign with the given text. No persistent data is added, so
+     * the sign will be read like a sign placed by an older version of the
+     * plugin.
+     *
+     * @param attachedTo
+     *            The block the sign is attached to.
+     * @param face
+     *            The side of the block the sign is placed on, must be
+     *            horizontal.
+     * @param lines
+     *            Lines on the front of the sign, at most four.
+     * @return The sign block.
+     */
+    public Block placeWallSign(Block attachedTo, BlockFace face, String... lines) {
+        Block signBlock = attachedTo.getRelative(face);
+        setBlock(signBlock.getX(), signBlock.getY(), signBlock.getZ(), Material.OAK_WALL_SIGN, face);
+        writeLines(signBlock, lines);
+        return signBlock;
+    }
+
+    /**
+     * Places both halves of a door.
+     *
+     * @param x
+     *            X position of the bottom half.
+     * @param y
+     *            Y position of the bottom half.
+     * @param z
+     *            Z position of the bottom half.
+     * @param material
+     *            The door material.
+     * @param facing
+     *            The direction the door is facing.
+     * @param hinge
+     *            Side of the hinge. For a double door, place a door with a
+     *            left hinge, and a door with a right hinge on the right of it.
+     * @return The bottom half of the door.
+     */
+    public Block placeDoor(int x, int y, int z, Material material, BlockFace facing, Door.Hinge hinge) {
+        for (Bisected.Half half : Bisected.Half.values()) {
+            Door door = (Door) createBlockData(material);
+            door.setFacing(facing);
+            door.setHinge(hinge);
+            door.setHalf(half);
+            setBlockData(x, half == Bisected.Half.TOP ? y + 1 : y, z, door);
+        }
+        return getBlockAt(x, y, z);
+    }
+
+    /**
+     * Places a double chest. The other half is placed on the right of the
+     * given position, when looking at the front of the chest.
+     *
+     * @param x
+     *            X position of the left half.
+     * @param y
+     *            Y position of the left half.
+     * @param z
+     *            Z position of the left half.
+     * @param facing
+     *            The direction the chest is facing.
+     * @return The left half of the chest.
+     */
+    public Block placeDoubleChest(int x, int y, int z, BlockFace facing) {
+        Block left = getBlockAt(x, y, z);
+        Block right = left.getRelative(turn90Degrees(facing));
+        for (Chest.Type type : new Chest.Type[] { Chest.Type.LEFT, Chest.Type.RIGHT }) {
+            Block block = type == Chest.Type.LEFT ? left : right;
+            Chest chest = (Chest) createBlockData(Material.CHEST);
+            chest.setFacing(facing);
+            chest.setType(type);
+            setBlockData(block.getX(), block.getY(), block.getZ(), chest);
+        }
+        return left;
+    }
+
+    /**
+     * Places a trapdoor against the given block.
+     *
+     * @param attachedTo
+     *            The block the trapdoor is attached to.
+     * @param face
+     *            The side of the block the trapdoor is placed on, must be
+     *            horizontal.
+     * @return The trapdoor block.
+     */
+    public Block placeTrapDoor(Block attachedTo, BlockFace face) {
+        Block trapDoor = attachedTo.getRelative(face);
+        return setBlock(trapDoor.getX(), trapDoor.getY(), trapDoor.getZ(), Material.OAK_TRAPDOOR, face);
+    }
+
+    /**
+     * Places a standing sign with the given text on top of the given block.
+     *
+     * @param below
+     *            The block below the sign.
+     * @param lines
+     *            Lines on the front of the sign, at most four.
+     * @return The sign block.
+     * @see #placeWallSign(Block, BlockFace, String...)
+     */
+    public Block placeStandingSign(Block below, String... lines) {
+        Block signBlock = below.getRelative(BlockFace.UP);
+        setBlock(signBlock.getX(), signBlock.getY(), signBlock.getZ(), Material.OAK_SIGN);
+        writeLines(signBlock, lines);
+        return signBlock;
+    }
+
+    @Override
+    public String toString() {
+        return "TestWorld[name=" + name + ", blocks=" + blocks.size() + "]";
+    }
+
+    private BlockFace turn90Degrees(BlockFace face) {
+        switch (face) {
+            case NORTH:
+                return BlockFace.EAST;
+            case EAST:
+                return BlockFace.SOUTH;
+            case SOUTH:
+                return BlockFace.WEST;
+            case WEST:
+                return BlockFace.NORTH;
+            default:
+                throw new IllegalArgumentException("Cannot handle " + face);
+        }
+    }
+
+    private void writeLines(Block signBlock, String... lines) {
+        if (lines.length > 4) {
+            throw new IllegalArgumentException("At most four lines, got " + Arrays.toString(lines));
+        }
+        BlockContents contents = getContents(signBlock.getX(), signBlock.getY(), signBlock.getZ());
+        for (int i = 0; i < 4; i++) {
+            contents.frontLines[i] = i < lines.length ? lines[i] : "";
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class CaseInsensitiveLookupTest {
+
+    @Test
+    public void testEmpty() {
+        CaseInsensitiveLookup<Integer> lookup = CaseInsensitiveLookup.<Integer> builder().build();
+        assertNull(lookup.get(""));
+        assertNull(lookup.get("test"));
+    }
+
+    @Test
+    public void testFirstValueWins() {
+        CaseInsensitiveLookup<Integer> lookup = CaseInsensitiveLookup.<Integer> builder()
+                .add("Private", 1)
+                .add("PRIVATE", 2)
+                .build();
+        assertEquals(1, lookup.get("private").intValue());
+    }
+
+    @Test
+    public void testIgnoresCase() {
+        CaseInsensitiveLookup<Integer> lookup = CaseInsensitiveLookup.<Integer> builder()
+                .add("[Private]", 1)
+                .add("[Privé]", 2)
+                .add("[More Users]", 3)
+                .build();
+
+        assertEquals(1, lookup.get("[PRIVATE]").intValue());
+        assertEquals(2, lookup.get("[PRIVÉ]").intValue());
+        assertEquals(3, lookup.get("[more users]").intValue());
+        assertNull(lookup.get("[Private"));
+        assertNull(lookup.get("[Everyone]"));
+    }
+
+    @Test
+    public void testPartOfText() {
+        CaseInsensitiveLookup<Integer> lookup = CaseInsensitiveLookup.<Integer> builder()
+                .add("Timer", 1)
+                .build();
+
+        assertEquals(1, lookup.get("[timer:5]", 1, 6).intValue());
+        assertNull(lookup.get("[timer:5]", 1, 5));
+        assertNull(lookup.get("[timer:5]", 0, 6));
+    }
+}
@@ -0,0 +1,60 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.ProtectableBlocksSettings;
+import nl.rutgerkok.blocklocker.ProtectionType;
+import nl.rutgerkok.blocklocker.TestWorld;
+import nl.rutgerkok.blocklocker.impl.profile.NullTranslator;
+
+public class ChestSettingsImplTest {
+
+    private final TestWorld world = new TestWorld("world");
+    private final ChestSettingsImpl chestSettings = new ChestSettingsImpl(new NullTranslator(),
+            TestServices.loadConfig(false));
+
+    @Test
+    public void testBuiltInMaterials() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block door = world.setBlock(1, 64, 0, Material.OAK_DOOR);
+        Block trapDoor = world.setBlock(2, 64, 0, Material.OAK_TRAPDOOR);
+        Block stone = world.setBlock(3, 64, 0, Material.STONE);
+
+        assertEquals(Optional.of(ProtectionType.CONTAINER), chestSettings.getProtectionType(chest));
+        assertEquals(Optional.of(ProtectionType.DOOR), chestSettings.getProtectionType(door));
+        assertEquals(Optional.of(ProtectionType.ATTACHABLE), chestSettings.getProtectionType(trapDoor));
+        assertEquals(Optional.empty(), chestSettings.getProtectionType(stone));
+
+        assertTrue(chestSettings.canProtect(chest));
+        assertTrue(chestSettings.canProtect(ProtectionType.DOOR, door));
+        assertFalse(chestSettings.canProtect(ProtectionType.CONTAINER, door));
+        assertFalse(chestSettings.canProtect(stone));
+    }
+
+    @Test
+    public void testExtraProtectables() {
+        Block stone = world.setBlock(0, 64, 0, Material.STONE);
+        chestSettings.getExtraProtectables().add(new ProtectableBlocksSettings() {
+            @Override
+            public boolean canProtect(Block block) {
+                return block.getType() == Material.STONE;
+            }
+
+            @Override
+            public boolean canProtect(ProtectionType type, Block block) {
+                return type == ProtectionType.ATTACHABLE && canProtect(block);
+            }
+        });
+
+        assertTrue(chestSettings.canProtect(stone));
+        assertEquals(Optional.of(ProtectionType.ATTACHABLE), chestSettings.getProtectionType(stone));
+    }
+}
@@ -0,0 +1,54 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactSecretSignEntryTest {
+
+    @Test
+    public void testCorrupted() {
+        CompactSecretSignEntry entry = new CompactSecretSignEntry();
+        entry.setString("n", "Alice");
+        byte[] bytes = CompactSecretSignEntry.encode(Arrays.asList(entry));
+
+        assertFalse(CompactSecretSignEntry.decode(Arrays.copyOf(bytes, bytes.length - 1)).isPresent());
+        assertFalse(CompactSecretSignEntry.decode(new byte[0]).isPresent());
+
+        bytes[0] = 100; // Unknown version
+        assertFalse(CompactSecretSignEntry.decode(bytes).isPresent());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        UUID uuid = UUID.randomUUID();
+        CompactSecretSignEntry player = new CompactSecretSignEntry();
+        player.setString("n", "Ålice");
+        player.setUniqueId("u", uuid);
+        CompactSecretSignEntry timer = new CompactSecretSignEntry();
+        timer.setInteger("t", -5);
+        timer.setInteger("large", Integer.MAX_VALUE);
+        timer.setBoolean("e", true);
+        timer.setBoolean("r", false);
+
+        List<CompactSecretSignEntry> decoded = CompactSecretSignEntry
+                .decode(CompactSecretSignEntry.encode(Arrays.asList(player, new CompactSecretSignEntry(), timer)))
+                .get();
+
+        assertEquals(3, decoded.size());
+        assertEquals(Optional.of("Ålice"), decoded.get(0).getString("n"));
+        assertEquals(Optional.of(uuid), decoded.get(0).getUniqueId("u"));
+        assertEquals(Optional.empty(), decoded.get(1).getString("n"));
+        assertEquals(OptionalInt.of(-5), decoded.get(2).getInteger("t"));
+        assertEquals(OptionalInt.of(Integer.MAX_VALUE), decoded.get(2).getInteger("large"));
+        assertEquals(Optional.of(true), decoded.get(2).getBoolean("e"));
+        assertEquals(Optional.of(false), decoded.get(2).getBoolean("r"));
+    }
+}
@@ -0,0 +1,62 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Door;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.protection.Protection.SoundCondition;
+import nl.rutgerkok.blocklocker.TestServer;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+public class CompleteDoorTest {
+
+    private final TestWorld world;
+
+    public CompleteDoorTest() {
+        TestServer.install();
+        world = new TestWorld("world");
+    }
+
+    @Test
+    public void testDoubleDoor() {
+        Block left = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        Block right = world.placeDoor(1, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.RIGHT);
+
+        CompleteDoor door = new CompleteDoor(right.getRelative(BlockFace.UP));
+        assertTrue(door.getBlocksForSigns().contains(left.getRelative(BlockFace.UP, 2)));
+        assertTrue(door.getBlocksForSigns().contains(right.getRelative(BlockFace.DOWN)));
+
+        assertFalse(door.isOpen());
+        door.setOpen(true, SoundCondition.NEVER);
+        assertTrue(door.isOpen());
+        assertTrue(((Door) left.getBlockData()).isOpen());
+        assertTrue(((Door) right.getBlockData()).isOpen());
+    }
+
+    @Test
+    public void testSingleDoor() {
+        Block bottom = world.placeDoor(0, 64, 0, Material.IRON_DOOR, BlockFace.EAST, Door.Hinge.RIGHT);
+
+        CompleteDoor door = new CompleteDoor(bottom);
+        assertEquals(bottom, door.getSomeDoorBlock());
+
+        // Both sides of a single door can hold signs
+        assertTrue(door.getBlocksForSigns().contains(bottom.getRelative(BlockFace.NORTH)));
+        assertTrue(door.getBlocksForSigns().contains(bottom.getRelative(BlockFace.SOUTH)));
+    }
+
+    @Test
+    public void testWrongHingeNotConnected() {
+        Block left = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        world.placeDoor(1, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+
+        new CompleteDoor(left).setOpen(true, SoundCondition.NEVER);
+        assertFalse(((Door) world.getBlockAt(1, 64, 0).getBlockData()).isOpen());
+    }
+}
@@ -0,0 +1,68 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Door;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.TestServer;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+public class DoorCacheTest {
+
+    private final DoorCache cache = new DoorCache();
+    private final TestWorld world;
+
+    public DoorCacheTest() {
+        TestServer.install();
+        world = new TestWorld("world");
+    }
+
+    @Test
+    public void testCachedDoor() {
+        Block bottom = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+
+        assertSame(cache.get(bottom), cache.get(bottom));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().hitCount());
+    }
+
+    @Test
+    public void testChangedMaterial() {
+        Block bottom = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        CompleteDoor door = cache.get(bottom);
+
+        // Changed without an event, so the cache must notice by itself
+        world.placeDoor(0, 64, 0, Material.IRON_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        assertNotSame(door, cache.get(bottom));
+    }
+
+    @Test
+    public void testRemovedOtherDoor() {
+        Block left = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        world.placeDoor(1, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.RIGHT);
+        CompleteDoor door = cache.get(left);
+
+        // Removed without an event, so the cache must notice by itself
+        world.setBlock(1, 64, 0, Material.AIR);
+        assertNotSame(door, cache.get(left));
+    }
+
+    @Test
+    public void testInvalidateAround() {
+        Block left = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        assertFalse(cache.get(left).getBlocksForSigns().contains(world.getBlockAt(1, 65, 0).getRelative(BlockFace.UP)));
+
+        // Now it becomes a double door
+        Block right = world.placeDoor(1, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.RIGHT);
+        cache.invalidateAround(right);
+        assertTrue(cache.get(left).getBlocksForSigns().contains(right.getRelative(BlockFace.UP, 2)));
+    }
+}
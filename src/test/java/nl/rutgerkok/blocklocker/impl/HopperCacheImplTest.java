@@ -0,0 +1,69 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.ProtectionCache.CacheFlag;
+import nl.rutgerkok.blocklocker.ProtectionCache.CacheType;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+public class HopperCacheImplTest {
+
+    private final TestWorld world = new TestWorld("world");
+    private final HopperCacheImpl cache = new HopperCacheImpl(TestServices.loadConfig(false));
+
+    @Test
+    public void testInvalidateAround() {
+        Block near = world.getBlockAt(5, 64, 5);
+        Block far = world.getBlockAt(100, 64, 100);
+        cache.setAllowed(near, CacheType.REDSTONE, true);
+        cache.setAllowed(far, CacheType.REDSTONE, true);
+
+        cache.invalidateAround(world.getBlockAt(0, 64, 0));
+        assertEquals(CacheFlag.MISS_CACHE, cache.getAllowed(near, CacheType.REDSTONE));
+        assertEquals(CacheFlag.ALLOWED, cache.getAllowed(far, CacheType.REDSTONE));
+    }
+
+    @Test
+    public void testStoreAfterInvalidate() {
+        Block block = world.getBlockAt(5, 64, 5);
+        cache.setAllowed(block, CacheType.GOLEM, true);
+        cache.invalidateAround(block);
+
+        cache.setAllowed(block, CacheType.GOLEM, false);
+        assertEquals(CacheFlag.NOT_ALLOWED, cache.getAllowed(block, CacheType.GOLEM));
+    }
+
+    @Test
+    public void testInvalidateDuringLookup() {
+        Block block = world.getBlockAt(5, 64, 5);
+        assertEquals(CacheFlag.MISS_CACHE, cache.getAllowed(block, CacheType.REDSTONE));
+
+        // For example by another region thread on Folia, while this thread is
+        // still looking up the protection
+        cache.invalidateAround(block);
+        cache.setAllowed(block, CacheType.REDSTONE, true);
+        assertEquals(CacheFlag.MISS_CACHE, cache.getAllowed(block, CacheType.REDSTONE));
+
+        cache.setAllowed(block, CacheType.REDSTONE, true);
+        assertEquals(CacheFlag.ALLOWED, cache.getAllowed(block, CacheType.REDSTONE));
+    }
+
+    @Test
+    public void testManyChunks() {
+        // Spread over many chunks, so that all stripes are used
+        for (int i = 0; i < 256; i++) {
+            cache.setAllowed(world.getBlockAt(i * 16, 64, -i * 16), CacheType.REDSTONE, i % 2 == 0);
+        }
+
+        for (int i = 0; i < 256; i++) {
+            CacheFlag expected = i % 2 == 0 ? CacheFlag.ALLOWED : CacheFlag.NOT_ALLOWED;
+            assertEquals(expected, cache.getAllowed(world.getBlockAt(i * 16, 64, -i * 16), CacheType.REDSTONE));
+        }
+        assertEquals(CacheFlag.MISS_CACHE, cache.getAllowed(world.getBlockAt(8, 64, 8), CacheType.REDSTONE));
+        assertEquals(CacheFlag.MISS_CACHE, cache.getAllowed(world.getBlockAt(0, 64, 0), CacheType.GOLEM));
+        assertEquals(256, cache.size());
+    }
+}
@@ -0,0 +1,170 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.type.Door;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.SearchMode;
+import nl.rutgerkok.blocklocker.TestWorld;
+import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
+import nl.rutgerkok.blocklocker.protection.Protection;
+
+public class ProtectionFinderImplTest {
+
+    private final TestWorld world = new TestWorld("world");
+    private final ProtectionFinderImpl finder = TestServices.create(false).getProtectionFinder();
+
+    @Test
+    public void testChestWithoutSign() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+
+        assertFalse(finder.findProtection(chest).isPresent());
+    }
+
+    @Test
+    public void testChestWithSign() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block sign = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        Optional<Protection> protection = finder.findProtection(chest);
+        assertTrue(protection.isPresent());
+        assertEquals("Alice", protection.get().getOwnerDisplayName());
+
+        // Also found from the sign, unless signs are excluded
+        assertTrue(finder.findProtection(sign, SearchMode.ALL).isPresent());
+        assertFalse(finder.findProtection(sign, SearchMode.NO_SIGNS).isPresent());
+    }
+
+    @Test
+    public void testConnectedContainers() {
+        ProtectionFinderImpl connectedFinder = TestServices.create(true).getProtectionFinder();
+        Block start = world.setBlock(0, 64, 0, Material.BARREL);
+        world.setBlock(1, 64, 0, Material.BARREL);
+        world.setBlock(1, 65, 0, Material.BARREL);
+        Block end = world.setBlock(1, 66, 0, Material.BARREL);
+        world.placeWallSign(end, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        assertTrue(connectedFinder.findProtection(start).isPresent());
+        assertFalse(finder.findProtection(start).isPresent());
+        assertTrue(finder.findProtection(end).isPresent());
+    }
+
+    @Test
+    public void testDoubleChest() {
+        Block left = world.placeDoubleChest(0, 64, 0, BlockFace.NORTH);
+        Block right = left.getRelative(BlockFace.EAST);
+        world.placeWallSign(right, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        assertTrue(finder.findProtection(left).isPresent());
+        assertTrue(finder.findProtection(right).isPresent());
+    }
+
+    @Test
+    public void testDoubleDoor() {
+        Block left = world.placeDoor(0, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.LEFT);
+        Block right = world.placeDoor(1, 64, 0, Material.OAK_DOOR, BlockFace.NORTH, Door.Hinge.RIGHT);
+        world.placeWallSign(left.getRelative(BlockFace.UP), BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        assertTrue(finder.findProtection(left).isPresent());
+        assertTrue(finder.findProtection(right.getRelative(BlockFace.UP)).isPresent());
+
+        // Block below the door is a supporting block
+        Block below = right.getRelative(BlockFace.DOWN);
+        assertTrue(finder.findProtection(below, SearchMode.ALL).isPresent());
+        assertFalse(finder.findProtection(below, SearchMode.NO_SUPPORTING_BLOCKS).isPresent());
+    }
+
+    @Test
+    public void testFindProtections() {
+        Block protectedChest = world.setBlock(0, 64, 0, Material.CHEST);
+        world.placeWallSign(protectedChest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+        Block chest = world.setBlock(3, 64, 0, Material.CHEST);
+        Block stone = world.setBlock(6, 64, 0, Material.STONE);
+
+        assertEquals(Collections.singleton(protectedChest),
+                finder.findProtections(Arrays.asList(protectedChest, chest, stone)));
+    }
+
+    @Test
+    public void testFindProtectionsConnected() {
+        ProtectionFinderImpl connectedFinder = TestServices.create(true).getProtectionFinder();
+        List<Block> blocks = new ArrayList<>();
+        for (int x = 0; x < 12; x++) {
+            blocks.add(world.setBlock(x, 64, 0, Material.BARREL));
+        }
+        world.placeWallSign(blocks.get(0), BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        // Must give the same answer as findProtection, in any order
+        Set<Block> expected = new HashSet<>();
+        for (Block block : blocks) {
+            if (connectedFinder.findProtection(block).isPresent()) {
+                expected.add(block);
+            }
+        }
+        assertEquals(expected, connectedFinder.findProtections(blocks));
+        Collections.reverse(blocks);
+        assertEquals(expected, connectedFinder.findProtections(blocks));
+    }
+
+    @Test
+    public void testIsAllowed() {
+        ProfileFactoryImpl profileFactory = TestServices.create(false).getProfileFactory();
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+        world.placeWallSign(chest, BlockFace.SOUTH, TestServices.MORE_USERS_HEADER, "Bob", "Carol");
+
+        Protection protection = finder.findProtection(chest).get();
+        assertTrue(protection.isAllowed(profileFactory.fromDisplayText("Alice")));
+        assertTrue(protection.isAllowed(profileFactory.fromDisplayText("BOB")));
+        assertTrue(protection.isAllowed(profileFactory.fromNameAndUniqueId("carol", Optional.of(UUID.randomUUID()))));
+        assertFalse(protection.isAllowed(profileFactory.fromDisplayText("Dave")));
+    }
+
+    @Test
+    public void testIsProtected() {
+        Block protectedChest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block sign = world.placeWallSign(protectedChest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+        Block chest = world.setBlock(3, 64, 0, Material.CHEST);
+        Block wall = world.setBlock(6, 64, 0, Material.STONE);
+        Block trapDoor = world.placeTrapDoor(wall, BlockFace.NORTH);
+        world.placeWallSign(wall, BlockFace.EAST, TestServices.PRIVATE_HEADER, "Bob");
+
+        for (Block block : Arrays.asList(protectedChest, sign, chest, wall, trapDoor)) {
+            assertEquals(finder.findProtection(block).isPresent(), finder.isProtected(block), block.toString());
+        }
+        assertTrue(finder.isProtected(protectedChest));
+        assertFalse(finder.isProtected(chest));
+    }
+
+    @Test
+    public void testSignWithoutHeader() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        world.placeWallSign(chest, BlockFace.NORTH, "Hello", "Alice");
+
+        assertFalse(finder.findProtection(chest).isPresent());
+    }
+
+    @Test
+    public void testTrapDoor() {
+        Block wall = world.setBlock(0, 64, 0, Material.STONE);
+        Block trapDoor = world.placeTrapDoor(wall, BlockFace.NORTH);
+        world.placeWallSign(wall, BlockFace.EAST, TestServices.PRIVATE_HEADER, "Alice");
+
+        assertTrue(finder.findProtection(trapDoor).isPresent());
+    }
+}
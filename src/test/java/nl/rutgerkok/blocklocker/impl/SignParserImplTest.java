@@ -0,0 +1,121 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Sign;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.ProtectionSign;
+import nl.rutgerkok.blocklocker.SignType;
+import nl.rutgerkok.blocklocker.TestWorld;
+
+public class SignParserImplTest {
+
+    private final TestServices services = TestServices.create(false);
+    private final TestWorld world = new TestWorld("world");
+
+    @Test
+    public void testDecorativeSign() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block sign = world.placeWallSign(chest, BlockFace.NORTH, "Welcome", "to my", "house");
+
+        assertFalse(services.getSignParser().parseSign(sign).isPresent());
+    }
+
+    @Test
+    public void testLegacySign() {
+        SignParserImpl parser = services.getSignParser();
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block signBlock = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        // Write data in the format with a tag per profile
+        Sign signState = (Sign) signBlock.getState();
+        PersistentDataContainer data = signState.getPersistentDataContainer();
+        data.set(NbtSecretSignEntry.key("header"), PersistentDataType.STRING, SignType.PRIVATE.toString());
+        String[] names = { "Alice", "", "" };
+        for (int i = 0; i < names.length; i++) {
+            NbtSecretSignEntry entry = new NbtSecretSignEntry(data.getAdapterContext().newPersistentDataContainer());
+            services.getProfileFactory().fromDisplayText(names[i]).getSaveObject(entry);
+            data.set(NbtSecretSignEntry.key("profile_" + (i + 1)), NbtSecretSignEntry.TAG_TYPE, entry);
+        }
+        signState.update();
+
+        ProtectionSign sign = parser.parseSign(signBlock).get();
+        assertFalse(sign.requiresResave(), "Old format is still valid");
+        assertEquals("Alice", sign.getProfiles().get(0).getDisplayName());
+
+        // Saved for another reason, for example because a player was added
+        parser.saveSign(sign);
+
+        PersistentDataContainer saved = ((Sign) signBlock.getState()).getPersistentDataContainer();
+        assertFalse(saved.has(NbtSecretSignEntry.key("profile_1")));
+        assertTrue(saved.has(NbtSecretSignEntry.key("profiles"), PersistentDataType.BYTE_ARRAY));
+        assertFalse(parser.parseSign(signBlock).get().requiresResave());
+    }
+
+    @Test
+    public void testSavedSign() {
+        SignParserImpl parser = services.getSignParser();
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block signBlock = world.placeWallSign(chest, BlockFace.NORTH, TestServices.MORE_USERS_HEADER, "Alice", "Bob");
+
+        ProtectionSign sign = parser.parseSign(signBlock).get();
+        assertTrue(sign.requiresResave(), "Plain text signs are converted");
+        parser.saveSign(sign);
+
+        ProtectionSign saved = parser.parseSign(signBlock).get();
+        assertFalse(saved.requiresResave(), "Text matches the saved data");
+        assertEquals(SignType.MORE_USERS, saved.getType());
+        assertEquals("Alice", saved.getProfiles().get(0).getDisplayName());
+        assertEquals("Bob", saved.getProfiles().get(1).getDisplayName());
+    }
+
+    @Test
+    public void testTextSign() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block sign = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        Optional<ProtectionSign> parsed = services.getSignParser().parseSign(sign);
+        assertTrue(parsed.isPresent());
+        assertEquals(SignType.PRIVATE, parsed.get().getType());
+        assertEquals("Alice", parsed.get().getProfiles().get(0).getDisplayName());
+    }
+
+    @Test
+    public void testHeaderChangedWithoutEvent() {
+        SignParserImpl parser = services.getSignParser();
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block sign = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+        assertEquals("Alice", parser.parseSign(sign).get().getProfiles().get(0).getDisplayName());
+
+        // For example changed by another plugin, so the cache isn't told
+        world.placeWallSign(chest, BlockFace.NORTH, "Welcome");
+        assertFalse(parser.parseSign(sign).isPresent());
+    }
+
+    @Test
+    public void testUndecodableSign() {
+        Block chest = world.setBlock(0, 64, 0, Material.CHEST);
+        Block signBlock = world.placeWallSign(chest, BlockFace.NORTH, TestServices.PRIVATE_HEADER, "Alice");
+
+        // For example written by a newer version of the plugin
+        Sign signState = (Sign) signBlock.getState();
+        PersistentDataContainer data = signState.getPersistentDataContainer();
+        data.set(NbtSecretSignEntry.key("header"), PersistentDataType.STRING, SignType.PRIVATE.toString());
+        data.set(NbtSecretSignEntry.key("profiles"), PersistentDataType.BYTE_ARRAY, new byte[] { 127, 1, 2 });
+        signState.update();
+
+        ProtectionSign sign = services.getSignParser().parseSign(signBlock).get();
+        assertFalse(sign.requiresResave(), "Data that cannot be read must not be overwritten");
+        assertEquals("Alice", sign.getProfiles().get(0).getDisplayName());
+    }
+}
@@ -0,0 +1,118 @@
+package nl.rutgerkok.blocklocker.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.mockito.Mockito;
+
+import nl.rutgerkok.blocklocker.TestServer;
+import nl.rutgerkok.blocklocker.group.CombinedGroupSystem;
+import nl.rutgerkok.blocklocker.impl.blockfinder.BlockFinder;
+import nl.rutgerkok.blocklocker.impl.blockfinder.ContainerGroupCache;
+import nl.rutgerkok.blocklocker.impl.profile.NullTranslator;
+import nl.rutgerkok.blocklocker.impl.profile.LastSeenStore;
+import nl.rutgerkok.blocklocker.impl.profile.PlayerActivityCache;
+import nl.rutgerkok.blocklocker.impl.profile.ProfileFactoryImpl;
+
+/**
+ * Wires the services that are needed to find protections together in the
+ * same way as {@link BlockLockerPluginImpl}, but without needing a running
+ * server. The default configuration is used, and headers are not translated,
+ * so signs need to start with {@code tag.private} or {@code tag.more_users}.
+ *
+ * <p>
+ * Tests of a single class, like the caches, should create that class
+ * themselves instead of adding it here.
+ *
+ */
+public final class TestServices {
+
+    /**
+     * Header of private signs.
+     */
+    public static final String PRIVATE_HEADER = "tag.private";
+
+    /**
+     * Header of signs with additional users.
+     */
+    public static final String MORE_USERS_HEADER = "tag.more_users";
+
+    /**
+     * Creates the services.
+     *
+     * @param connectContainers
+     *            Value of the {@code connectContainers} setting.
+     * @return The services.
+     */
+    public static TestServices create(boolean connectContainers) {
+        return new TestServices(loadConfig(connectContainers));
+    }
+
+    /**
+     * Loads the default configuration.
+     *
+     * @param connectContainers
+     *            Value of the {@code connectContainers} setting.
+     * @return The configuration.
+     */
+    static Config loadConfig(boolean connectContainers) {
+        TestServer.install();
+        YamlConfiguration yaml;
+        try (InputStream stream = Objects.requireNonNull(TestServices.class.getResourceAsStream("/config.yml"))) {
+            yaml = YamlConfiguration.loadConfiguration(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read default config", e);
+        }
+        yaml.set("connectContainers", connectContainers);
+
+        Plugin plugin = Mockito.mock(Plugin.class);
+        Mockito.when(plugin.getConfig()).thenReturn(yaml);
+        Mockito.when(plugin.getLogger()).thenReturn(Logger.getLogger("BlockLocker"));
+        return new Config(plugin);
+    }
+
+    private final ChestSettingsImpl chestSettings;
+    private final ProfileFactoryImpl profileFactory;
+    private final SignParserImpl signParser;
+    private final BlockFinder blockFinder;
+    private final ProtectionFinderImpl protectionFinder;
+
+    private TestServices(Config config) {
+        NullTranslator translator = new NullTranslator();
+        // No player data, so all players look like they have never played
+        PlayerActivityCache activityCache = new PlayerActivityCache(Runnable::run, uuid -> 0,
+                LastSeenStore.inMemory());
+        profileFactory = new ProfileFactoryImpl(new CombinedGroupSystem(), translator, activityCache);
+        chestSettings = new ChestSettingsImpl(translator, config);
+        signParser = new SignParserImpl(chestSettings, profileFactory, new SignCache(),
+                Logger.getLogger("BlockLocker"));
+        blockFinder = BlockFinder.create(signParser, config.getConnectContainers(), new ContainerGroupCache());
+        protectionFinder = new ProtectionFinderImpl(blockFinder, chestSettings, new DoorCache());
+    }
+
+    public BlockFinder getBlockFinder() {
+        return blockFinder;
+    }
+
+    public ChestSettingsImpl getChestSettings() {
+        return chestSettings;
+    }
+
+    public ProfileFactoryImpl getProfileFactory() {
+        return profileFactory;
+    }
+
+    public ProtectionFinderImpl getProtectionFinder() {
+        return protectionFinder;
+    }
+
+    public SignParserImpl getSignParser() {
+        return signParser;
+    }
+}
@@ -0,0 +1,67 @@
+package nl.rutgerkok.blocklocker.impl.blockfinder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.TestWorld;
+import nl.rutgerkok.blocklocker.impl.TestServices;
+
+public class ContainerGroupCacheTest {
+
+    private final TestWorld world = new TestWorld("world");
+    private final ContainerGroupCache cache = new ContainerGroupCache();
+    private final BlockFinder blockFinder = BlockFinder.create(TestServices.create(true).getSignParser(), true,
+            cache);
+
+    @Test
+    public void testCachedGroup() {
+        Block start = world.setBlock(0, 64, 0, Material.BARREL);
+        world.setBlock(1, 64, 0, Material.BARREL);
+
+        assertEquals(2, blockFinder.findContainerNeighbors(start).size());
+        assertEquals(2, blockFinder.findContainerNeighbors(start).size());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().hitCount());
+    }
+
+    @Test
+    public void testChangedStartBlock() {
+        Block start = world.setBlock(0, 64, 0, Material.BARREL);
+        world.setBlock(1, 64, 0, Material.BARREL);
+        assertEquals(2, blockFinder.findContainerNeighbors(start).size());
+
+        // Changed without an event, so the cache must notice by itself
+        world.setBlock(0, 64, 0, Material.CHEST);
+        assertEquals(1, blockFinder.findContainerNeighbors(start).size());
+    }
+
+    @Test
+    public void testChangedOtherBlock() {
+        Block start = world.setBlock(0, 64, 0, Material.BARREL);
+        world.setBlock(1, 64, 0, Material.BARREL);
+        world.setBlock(2, 64, 0, Material.BARREL);
+        assertEquals(3, blockFinder.findContainerNeighbors(start).size());
+
+        // Changed without an event, so the cache must notice by itself
+        world.setBlock(1, 64, 0, Material.STONE);
+        assertEquals(1, blockFinder.findContainerNeighbors(start).size());
+    }
+
+    @Test
+    public void testInvalidateAround() {
+        Block start = world.setBlock(0, 64, 0, Material.BARREL);
+        assertEquals(1, blockFinder.findContainerNeighbors(start).size());
+
+        Block placed = world.setBlock(0, 65, 0, Material.BARREL);
+        cache.invalidateAround(placed);
+        assertEquals(2, blockFinder.findContainerNeighbors(start).size());
+
+        // Too far away to matter
+        cache.invalidateAround(world.getBlockAt(50, 64, 0));
+        assertEquals(2, blockFinder.findContainerNeighbors(start).size());
+        assertEquals(1, cache.getStats().hitCount());
+    }
+}
@@ -0,0 +1,62 @@
+package nl.rutgerkok.blocklocker.impl.group;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import nl.rutgerkok.blocklocker.TestPlayer;
+import nl.rutgerkok.blocklocker.group.GroupSystem;
+
+public class CachingGroupSystemTest {
+
+    private static class CountingGroupSystem extends GroupSystem {
+        private int calls;
+
+        @Override
+        public boolean isInGroup(Player player, String groupName) {
+            calls++;
+            return groupName.equalsIgnoreCase("Town");
+        }
+    }
+
+    private final CountingGroupSystem groupSystem = new CountingGroupSystem();
+    private final CachingGroupSystem cache = new CachingGroupSystem(groupSystem);
+
+    @Test
+    public void testCached() {
+        Player player = TestPlayer.create();
+
+        // Names are cached exactly as written, as group systems can be case
+        // sensitive, so only the second "Other" is answered by the cache
+        assertTrue(cache.isInGroup(player, "Town"));
+        assertTrue(cache.isInGroup(player, "TOWN"));
+        assertFalse(cache.isInGroup(player, "Other"));
+        assertFalse(cache.isInGroup(player, "Other"));
+        assertEquals(3, groupSystem.calls);
+    }
+
+    @Test
+    public void testInvalidatePlayer() {
+        Player player = TestPlayer.create("Player");
+        Player otherPlayer = TestPlayer.create("OtherPlayer");
+        cache.isInGroup(player, "Town");
+        cache.isInGroup(otherPlayer, "Town");
+
+        cache.invalidatePlayer(player.getUniqueId());
+        assertEquals(1, cache.size());
+        cache.isInGroup(player, "Town");
+        assertEquals(3, groupSystem.calls);
+    }
+
+    @Test
+    public void testLeaderSeparate() {
+        Player player = TestPlayer.create();
+
+        assertTrue(cache.isInGroup(player, "Town"));
+        assertFalse(cache.isGroupLeader(player, "Town"));
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,115 @@
+package nl.rutgerkok.blocklocker.impl.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+public class LastSeenStoreTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000;
+    private static final Logger LOGGER = Logger.getLogger(LastSeenStoreTest.class.getName());
+
+    private Path createFile() throws IOException {
+        Path directory = Files.createTempDirectory("blocklocker");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve("last_seen.dat");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        Path file = createFile();
+        UUID uuid = UUID.randomUUID();
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            for (int day = 0; day < 10; day++) {
+                store.setLastSeen(uuid, day * DAY);
+            }
+        }
+        assertEquals(4 + 10 * 20, Files.size(file));
+
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            assertEquals(10 * DAY - 1, store.getLastSeen(uuid).getAsLong());
+        }
+        assertEquals(4 + 20, Files.size(file));
+    }
+
+    @Test
+    public void testDelayedWrite() throws IOException {
+        Path file = createFile();
+        List<Runnable> tasks = new ArrayList<>();
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, tasks::add)) {
+            store.setLastSeen(UUID.randomUUID(), 3 * DAY);
+            store.setLastSeen(UUID.randomUUID(), 3 * DAY);
+            assertEquals(4, Files.size(file), "Nothing written yet");
+            assertEquals(1, tasks.size(), "Both players are written by the same task");
+
+            tasks.remove(0).run();
+            assertEquals(4 + 2 * 20, Files.size(file));
+
+            store.setLastSeen(UUID.randomUUID(), 3 * DAY);
+        }
+        assertEquals(4 + 3 * 20, Files.size(file), "Written on close");
+    }
+
+    @Test
+    public void testEndOfDay() {
+        LastSeenStore store = LastSeenStore.inMemory();
+        UUID uuid = UUID.randomUUID();
+        store.setLastSeen(uuid, 100 * DAY + 5);
+
+        assertEquals(101 * DAY - 1, store.getLastSeen(uuid).getAsLong());
+        assertFalse(store.getLastSeen(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    public void testNeverGoesBack() {
+        LastSeenStore store = LastSeenStore.inMemory();
+        UUID uuid = UUID.randomUUID();
+        store.setLastSeen(uuid, 100 * DAY);
+        store.setLastSeen(uuid, 50 * DAY);
+
+        assertEquals(101 * DAY - 1, store.getLastSeen(uuid).getAsLong());
+    }
+
+    @Test
+    public void testPartialRecord() throws IOException {
+        Path file = createFile();
+        UUID uuid = UUID.randomUUID();
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            store.setLastSeen(uuid, 3 * DAY);
+        }
+        Files.write(file, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            assertEquals(4 * DAY - 1, store.getLastSeen(uuid).getAsLong());
+        }
+        assertEquals(4 + 20, Files.size(file));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = createFile();
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            store.setLastSeen(alice, 3 * DAY);
+            store.setLastSeen(bob, 5 * DAY);
+        }
+
+        try (LastSeenStore store = LastSeenStore.open(file, LOGGER, Runnable::run)) {
+            assertEquals(4 * DAY - 1, store.getLastSeen(alice).getAsLong());
+            assertEquals(6 * DAY - 1, store.getLastSeen(bob).getAsLong());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package nl.rutgerkok.blocklocker.impl.profile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class PlayerActivityCacheTest {
+
+    private static final long LAST_PLAYED = 1_000_000;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final PlayerActivityCache cache = new PlayerActivityCache(tasks::add, uuid -> LAST_PLAYED,
+            LastSeenStore.inMemory());
+
+    @Test
+    public void testJoinAndQuit() {
+        UUID uuid = UUID.randomUUID();
+        cache.playerJoined(uuid);
+        assertFalse(cache.isInactiveSince(uuid, System.currentTimeMillis()));
+
+        cache.playerQuit(uuid);
+        assertTrue(cache.isInactiveSince(uuid, System.currentTimeMillis() + 1000));
+        assertFalse(cache.isInactiveSince(uuid, LAST_PLAYED));
+        assertTrue(tasks.isEmpty(), "No need to look up players that joined");
+    }
+
+    @Test
+    public void testUnknownPlayer() {
+        UUID uuid = UUID.randomUUID();
+
+        // Not known yet, so not expired, but looked up (only once)
+        assertFalse(cache.isInactiveSince(uuid, LAST_PLAYED + 1));
+        assertFalse(cache.isInactiveSince(uuid, LAST_PLAYED + 1));
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertTrue(cache.isInactiveSince(uuid, LAST_PLAYED + 1));
+        assertFalse(cache.isInactiveSince(uuid, LAST_PLAYED - 1));
+    }
+
+    @Test
+    public void testJoinWhileLoading() {
+        UUID uuid = UUID.randomUUID();
+        cache.isInactiveSince(uuid, LAST_PLAYED);
+        cache.playerJoined(uuid);
+
+        // Lookup finishes after joining, must not overwrite
+        tasks.remove(0).run();
+        assertFalse(cache.isInactiveSince(uuid, System.currentTimeMillis()));
+    }
+}
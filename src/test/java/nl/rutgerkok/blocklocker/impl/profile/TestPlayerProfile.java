@@ -3,6 +3,8 @@ package nl.rutgerkok.blocklocker.impl.profile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
@@ -22,7 +24,8 @@ import nl.rutgerkok.blocklocker.profile.Profile;
 public class TestPlayerProfile {
 
     private ProfileFactoryImpl getProfileFactory() {
-        return new ProfileFactoryImpl(new CombinedGroupSystem(), new NullTranslator());
+        return new ProfileFactoryImpl(new CombinedGroupSystem(), new NullTranslator(),
+                new PlayerActivityCache(Runnable::run, uuid -> 0, LastSeenStore.inMemory()));
     }
 
     @Test
@@ -53,6 +56,36 @@ public class TestPlayerProfile {
         assertFalse(janeWithoutId.includes(everyone));
     }
 
+    @Test
+    public void testTags() {
+        ProfileFactoryImpl factory = getProfileFactory();
+
+        assertEquals(factory.fromEveryone(), factory.fromDisplayText("[TAG.EVERYONE]"));
+        assertEquals(factory.fromRedstone(), factory.fromDisplayText("[tag.redstone]"));
+        assertEquals(factory.fromGolem(), factory.fromDisplayText("[Tag.Golem]"));
+        assertTrue(factory.fromDisplayText("[tag.everyone") instanceof PlayerProfile, "Missing bracket");
+        assertTrue(factory.fromDisplayText("[tag.other]") instanceof GroupProfileImpl);
+
+        TimerProfileImpl timer = (TimerProfileImpl) factory.fromDisplayText("[Tag.Timer: 5]");
+        assertEquals(5, timer.getOpenSeconds());
+    }
+
+    @Test
+    public void testSharedInstances() {
+        ProfileFactoryImpl factory = getProfileFactory();
+        UUID bobId = UUID.randomUUID();
+
+        Profile bob = factory.fromNameAndUniqueId("Bob", Optional.of(bobId));
+        assertSame(bob, factory.fromNameAndUniqueId("Bob", Optional.of(bobId)));
+        assertSame(bob, factory.fromDisplayText("Bob#" + bobId));
+
+        // Renamed players get a new profile, the old one still works
+        Profile bobRenamed = factory.fromNameAndUniqueId("Bob2", Optional.of(bobId));
+        assertNotSame(bob, bobRenamed);
+        assertEquals("Bob", bob.getDisplayName());
+        assertEquals("Bob2", bobRenamed.getDisplayName());
+    }
+
     @Test
     public void testNameAndId() {
         String name = "test";